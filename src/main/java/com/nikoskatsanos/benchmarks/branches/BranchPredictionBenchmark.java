@@ -0,0 +1,304 @@
+package com.nikoskatsanos.benchmarks.branches;
+
+import com.nikoskatsanos.benchmarks.singlevsmanythreads.SetBitsCalculator;
+import com.nikoskatsanos.benchmarks.switchvsmap.SwitchVsMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Measures how the order of the input swings the cost of the data dependent branches found on the project's hot paths, against branchless versions of the same kernels:
+ *     <ul>
+ *         <li><b>parity*</b> the actors' {@code setBits % 2 == 0} even/odd split, as an {@code if}, a ternary (a conditional move candidate), bit operations and a counter array
+ *         indexed by the parity</li>
+ *         <li><b>perBit*</b> counting set bits, with {@link SetBitsCalculator}'s {@code if} per bit, shifting and adding each bit, and {@link Long#bitCount(long)} (a
+ *         {@code popcnt} intrinsic)</li>
+ *         <li><b>switch*</b> {@code SwitchVsMap}'s {@code switch} over an enum, against a lookup table indexed by the ordinal</li>
+ *     </ul>
+ *     Every kernel runs over values of the same set bits, either {@code SORTED}, hence long runs taking the same path, {@code PERIODIC}, a short random pattern repeated, or
+ *     {@code RANDOM}. For the parity kernels {@code SORTED} orders the values by their set bits and for the switch by key. Sorting by set bits leaves the bits themselves
+ *     random, hence the per bit kernels run over values whose bit patterns are regular instead: as many set bits, all of them low ({@code 0b0..01..1}), sorted, so that the
+ *     {@code if} per bit sees runs of ones followed by runs of zeros, repeated value after value. The input is large enough for a branch predictor not to memorise it across
+ *     invocations, so {@code RANDOM} really mispredicts.
+ * </p>
+ * <p>
+ *     The JIT is free to turn a branch into a conditional move when its profile shows it to be unpredictable, hence whether the branchy kernels suffer depends on what C2 makes
+ *     of them. {@code -XX:ConditionalMoveLimit=0} keeps the branches as written.
+ * </p>
+ * <p>
+ *     {@link #main(String...)} runs every kernel twice, as C2 sees fit and with {@code -XX:ConditionalMoveLimit=0}, adds the {@code perfnorm} profiler where {@code perf} is
+ *     available and prints a summary of the cost per element and, with {@code perfnorm}, the branches and branch misses per element.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class BranchPredictionBenchmark {
+
+    private static final int SIZE = 1 << 16;
+    private static final int PERIOD = 16;
+
+    private static final int[] WEIGHTS = {3, 7, 11, 19, 29, 37, 43, 53, 61, 71};
+
+    @Param({"SORTED", "PERIODIC", "RANDOM"})
+    private String order;
+
+    private final long[] bitPatterns = new long[SIZE];
+    private final int[] setBits = new int[SIZE];
+    private final SwitchVsMap.Values[] keys = new SwitchVsMap.Values[SIZE];
+    private final int[] parityCounts = new int[2];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        final SwitchVsMap.Values[] universe = SwitchVsMap.Values.values();
+        final Long[] generated = new Long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            generated[i] = "PERIODIC".equals(this.order) && i >= PERIOD ? generated[i % PERIOD] : random.nextLong();
+            this.keys[i] = "PERIODIC".equals(this.order) && i >= PERIOD ? this.keys[i % PERIOD] : universe[random.nextInt(universe.length)];
+        }
+        if ("SORTED".equals(this.order)) {
+            Arrays.sort(generated, Comparator.comparingInt(Long::bitCount));
+            Arrays.sort(this.keys);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            this.setBits[i] = Long.bitCount(generated[i]);
+            this.bitPatterns[i] = "SORTED".equals(this.order) ? lowBits(this.setBits[i]) : generated[i];
+        }
+    }
+
+    private static long lowBits(final int count) {
+        return count == 0 ? 0L : -1L >>> (Long.SIZE - count);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long parityBranchy() {
+        int even = 0;
+        int odd = 0;
+        for (final int bits : this.setBits) {
+            if (bits % 2 == 0) {
+                even++;
+            } else {
+                odd++;
+            }
+        }
+        return ((long) even << 32) | odd;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long parityTernary() {
+        int even = 0;
+        for (final int bits : this.setBits) {
+            even += bits % 2 == 0 ? 1 : 0;
+        }
+        return ((long) even << 32) | (SIZE - even);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long parityBitOps() {
+        int odd = 0;
+        for (final int bits : this.setBits) {
+            odd += bits & 1;
+        }
+        return ((long) (SIZE - odd) << 32) | odd;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long parityCounterArray() {
+        final int[] counts = this.parityCounts;
+        counts[0] = 0;
+        counts[1] = 0;
+        for (final int bits : this.setBits) {
+            counts[bits & 1]++;
+        }
+        return ((long) counts[0] << 32) | counts[1];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long perBitBranchy() {
+        long total = 0L;
+        for (final long value : this.bitPatterns) {
+            total += SetBitsCalculator.countSetBits(value);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long perBitShiftAdd() {
+        long total = 0L;
+        for (final long value : this.bitPatterns) {
+            for (int i = 0; i < 64; i++) {
+                total += (value >>> i) & 1L;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long perBitPopcnt() {
+        long total = 0L;
+        for (final long value : this.bitPatterns) {
+            total += Long.bitCount(value);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long switchBranchy() {
+        long total = 0L;
+        for (final SwitchVsMap.Values key : this.keys) {
+            switch (key) {
+                case ZERO:
+                    total += 3;
+                    break;
+                case ONE:
+                    total += 7;
+                    break;
+                case TWO:
+                    total += 11;
+                    break;
+                case THREE:
+                    total += 19;
+                    break;
+                case FOUR:
+                    total += 29;
+                    break;
+                case FIVE:
+                    total += 37;
+                    break;
+                case SIX:
+                    total += 43;
+                    break;
+                case SEVEN:
+                    total += 53;
+                    break;
+                case EIGHT:
+                    total += 61;
+                    break;
+                case NINE:
+                    total += 71;
+                    break;
+                default:
+                    throw new RuntimeException("Unexpected value");
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(SIZE)
+    public long switchLookup() {
+        long total = 0L;
+        for (final SwitchVsMap.Values key : this.keys) {
+            total += WEIGHTS[key.ordinal()];
+        }
+        return total;
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final boolean perfnorm = isPerfAvailable();
+        if (!perfnorm) {
+            System.out.println("perf is not available, branch misses will not be reported");
+        }
+
+        final List<String> summary = new ArrayList<>();
+        summary.add(String.format("%-20s %-9s %-8s %10s %12s %12s %10s", "kernel", "order", "cmov", "ns/elem", "branches", "misses", "miss %"));
+        for (final boolean conditionalMoves : new boolean[]{true, false}) {
+            final ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .include(BranchPredictionBenchmark.class.getSimpleName())
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .jvmArgsAppend(
+                    "-Xbatch",
+                    "-XX:-TieredCompilation",
+                    "-XX:+UnlockDiagnosticVMOptions",
+                    // C2's default, spelled out so that both runs differ in the limit only
+                    conditionalMoves ? "-XX:ConditionalMoveLimit=3" : "-XX:ConditionalMoveLimit=0"
+                );
+            if (perfnorm) {
+                builder.addProfiler(LinuxPerfNormProfiler.class);
+            }
+            summarize(new Runner(builder.build()).run(), conditionalMoves ? "default" : "off", summary);
+        }
+        summary.forEach(System.out::println);
+    }
+
+    private static void summarize(final Collection<RunResult> results, final String conditionalMoves, final List<String> summary) {
+        for (final RunResult result : results) {
+            final String benchmark = result.getParams().getBenchmark();
+            // perfnorm labels its results with the perf events' names as they are
+            final Result branches = result.getSecondaryResults().get("branches");
+            final Result misses = result.getSecondaryResults().get("branch-misses");
+            summary.add(String.format("%-20s %-9s %-8s %10.3f %12s %12s %10s",
+                benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                result.getParams().getParam("order"),
+                conditionalMoves,
+                result.getPrimaryResult().getScore(),
+                branches == null ? "-" : String.format("%.3f", branches.getScore()),
+                misses == null ? "-" : String.format("%.3f", misses.getScore()),
+                branches == null || misses == null || branches.getScore() == 0 ? "-" : String.format("%.2f", 100 * misses.getScore() / branches.getScore())));
+        }
+    }
+
+    private static boolean isPerfAvailable() {
+        try {
+            new LinuxPerfNormProfiler("");
+            return true;
+        } catch (final ProfilerException | RuntimeException e) {
+            return false;
+        }
+    }
+}
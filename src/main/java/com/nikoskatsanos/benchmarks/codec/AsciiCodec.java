@@ -0,0 +1,514 @@
+package com.nikoskatsanos.benchmarks.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation free encoding and decoding of {@code int}s, {@code long}s and fixed-point decimals, as ASCII text
+ * <p>
+ *     Values are written directly to a {@code byte[]}, a {@link ByteBuffer} (using absolute positions, hence the buffer's position is left untouched) or appended to a
+ *     {@link StringBuilder}, and read directly from a {@code byte[]}, a {@link ByteBuffer} or a {@link CharSequence}, as opposed to going through an intermediate
+ *     {@link String}. Malformed or overflowing input is rejected with a {@link NumberFormatException} with the same message as {@link Integer#parseInt(String)}'s, whatever
+ *     the source.
+ * </p>
+ * <p>
+ *     Fixed-point decimals are represented as an unscaled {@code long} and a scale, i.e. {@code 123.45} is {@code 12345} with a scale of {@code 2}.
+ * </p>
+ */
+public class AsciiCodec {
+
+    /**
+     * The maximum number of bytes a {@code long} (hence an {@code int} too) needs, i.e. {@code -9223372036854775808}
+     */
+    public static final int MAX_LONG_LENGTH = 20;
+
+    private static final byte MINUS = '-';
+    private static final byte DOT = '.';
+    private static final byte ZERO = '0';
+
+    // values below this overflow when multiplied by 10, saves a division per digit when checking for overflow
+    private static final long MULTIPLY_MIN = Long.MIN_VALUE / 10;
+
+    private static final byte[] LONG_MIN_VALUE = String.valueOf(Long.MIN_VALUE).getBytes();
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private AsciiCodec() {
+    }
+
+    /**
+     * @return the last decimal digit of the value, i.e. {@code 7} for {@code -1237}, without the {@code String.valueOf -> substring -> Integer.valueOf} round trip
+     */
+    public static int lastDigit(final long value) {
+        return (int) Math.abs(value % 10);
+    }
+
+    /**
+     * @return the number of decimal digits of a non negative value
+     */
+    public static int digitCount(final long value) {
+        for (int digits = 1; digits < POWERS_OF_TEN.length; digits++) {
+            if (value < POWERS_OF_TEN[digits]) {
+                return digits;
+            }
+        }
+        return POWERS_OF_TEN.length;
+    }
+
+    // --- Encoding ---
+
+    /**
+     * @return the number of bytes written
+     */
+    public static int putInt(final byte[] dst, final int offset, final int value) {
+        return putLong(dst, offset, value);
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public static int putLong(final byte[] dst, final int offset, final long value) {
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(LONG_MIN_VALUE, 0, dst, offset, LONG_MIN_VALUE.length);
+            return LONG_MIN_VALUE.length;
+        }
+
+        int position = offset;
+        long remaining = value;
+        if (remaining < 0) {
+            dst[position++] = MINUS;
+            remaining = -remaining;
+        }
+        final int digits = digitCount(remaining);
+        for (int i = position + digits - 1; i >= position; i--) {
+            dst[i] = (byte) (ZERO + remaining % 10);
+            remaining /= 10;
+        }
+        return position + digits - offset;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public static int putInt(final ByteBuffer dst, final int index, final int value) {
+        return putLong(dst, index, value);
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public static int putLong(final ByteBuffer dst, final int index, final long value) {
+        if (value == Long.MIN_VALUE) {
+            for (int i = 0; i < LONG_MIN_VALUE.length; i++) {
+                dst.put(index + i, LONG_MIN_VALUE[i]);
+            }
+            return LONG_MIN_VALUE.length;
+        }
+
+        int position = index;
+        long remaining = value;
+        if (remaining < 0) {
+            dst.put(position++, MINUS);
+            remaining = -remaining;
+        }
+        final int digits = digitCount(remaining);
+        for (int i = position + digits - 1; i >= position; i--) {
+            dst.put(i, (byte) (ZERO + remaining % 10));
+            remaining /= 10;
+        }
+        return position + digits - index;
+    }
+
+    /**
+     * Writes a fixed-point decimal, i.e. {@code (12345, 2)} as {@code 123.45} and {@code (-5, 2)} as {@code -0.05}
+     *
+     * @return the number of bytes written
+     */
+    public static int putDecimal(final byte[] dst, final int offset, final long unscaledValue, final int scale) {
+        checkScale(scale);
+        if (unscaledValue == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Unscaled value out of range: " + unscaledValue);
+        }
+        if (scale == 0) {
+            return putLong(dst, offset, unscaledValue);
+        }
+
+        int position = offset;
+        long remaining = unscaledValue;
+        if (remaining < 0) {
+            dst[position++] = MINUS;
+            remaining = -remaining;
+        }
+        position += putLong(dst, position, remaining / POWERS_OF_TEN[scale]);
+        dst[position++] = DOT;
+
+        long fraction = remaining % POWERS_OF_TEN[scale];
+        for (int i = position + scale - 1; i >= position; i--) {
+            dst[i] = (byte) (ZERO + fraction % 10);
+            fraction /= 10;
+        }
+        return position + scale - offset;
+    }
+
+    /**
+     * Writes a fixed-point decimal, i.e. {@code (12345, 2)} as {@code 123.45} and {@code (-5, 2)} as {@code -0.05}
+     *
+     * @return the number of bytes written
+     */
+    public static int putDecimal(final ByteBuffer dst, final int index, final long unscaledValue, final int scale) {
+        checkScale(scale);
+        if (unscaledValue == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Unscaled value out of range: " + unscaledValue);
+        }
+        if (scale == 0) {
+            return putLong(dst, index, unscaledValue);
+        }
+
+        int position = index;
+        long remaining = unscaledValue;
+        if (remaining < 0) {
+            dst.put(position++, MINUS);
+            remaining = -remaining;
+        }
+        position += putLong(dst, position, remaining / POWERS_OF_TEN[scale]);
+        dst.put(position++, DOT);
+
+        long fraction = remaining % POWERS_OF_TEN[scale];
+        for (int i = position + scale - 1; i >= position; i--) {
+            dst.put(i, (byte) (ZERO + fraction % 10));
+            fraction /= 10;
+        }
+        return position + scale - index;
+    }
+
+    /**
+     * Appends the value, as {@link StringBuilder#append(int)} does
+     *
+     * @return the number of chars appended
+     */
+    public static int appendInt(final StringBuilder dst, final int value) {
+        return appendLong(dst, value);
+    }
+
+    /**
+     * Appends the value, as {@link StringBuilder#append(long)} does
+     *
+     * @return the number of chars appended
+     */
+    public static int appendLong(final StringBuilder dst, final long value) {
+        final int start = dst.length();
+        if (value == Long.MIN_VALUE) {
+            for (final byte b : LONG_MIN_VALUE) {
+                dst.append((char) b);
+            }
+            return LONG_MIN_VALUE.length;
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            dst.append((char) MINUS);
+            remaining = -remaining;
+        }
+        final int position = dst.length();
+        final int digits = digitCount(remaining);
+        dst.setLength(position + digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            dst.setCharAt(i, (char) (ZERO + remaining % 10));
+            remaining /= 10;
+        }
+        return dst.length() - start;
+    }
+
+    /**
+     * Appends a fixed-point decimal, i.e. {@code (12345, 2)} as {@code 123.45} and {@code (-5, 2)} as {@code -0.05}
+     *
+     * @return the number of chars appended
+     */
+    public static int appendDecimal(final StringBuilder dst, final long unscaledValue, final int scale) {
+        checkScale(scale);
+        if (unscaledValue == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Unscaled value out of range: " + unscaledValue);
+        }
+        if (scale == 0) {
+            return appendLong(dst, unscaledValue);
+        }
+
+        final int start = dst.length();
+        long remaining = unscaledValue;
+        if (remaining < 0) {
+            dst.append((char) MINUS);
+            remaining = -remaining;
+        }
+        appendLong(dst, remaining / POWERS_OF_TEN[scale]);
+        dst.append((char) DOT);
+
+        final int position = dst.length();
+        dst.setLength(position + scale);
+        long fraction = remaining % POWERS_OF_TEN[scale];
+        for (int i = position + scale - 1; i >= position; i--) {
+            dst.setCharAt(i, (char) (ZERO + fraction % 10));
+            fraction /= 10;
+        }
+        return dst.length() - start;
+    }
+
+    // --- Decoding ---
+
+    public static int parseInt(final byte[] src, final int offset, final int length) {
+        final long value = parseLong(src, offset, length);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(src, offset, length);
+        }
+        return (int) value;
+    }
+
+    public static int parseInt(final ByteBuffer src, final int index, final int length) {
+        final long value = parseLong(src, index, length);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(src, index, length);
+        }
+        return (int) value;
+    }
+
+    public static int parseInt(final CharSequence src, final int start, final int end) {
+        final long value = parseLong(src, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(src, start, end);
+        }
+        return (int) value;
+    }
+
+    public static long parseLong(final byte[] src, final int offset, final int length) {
+        if (length <= 0) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src[offset] == MINUS;
+        int position = negative ? offset + 1 : offset;
+        final int end = offset + length;
+        if (position == end) {
+            throw numberFormatException(src, offset, length);
+        }
+
+        // accumulating negatively, as Long.MIN_VALUE has no positive counterpart
+        long value = 0;
+        for (; position < end; position++) {
+            final int digit = src[position] - ZERO;
+            if (digit < 0 || digit > 9 || value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+                throw numberFormatException(src, offset, length);
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw numberFormatException(src, offset, length);
+        }
+        return negative ? value : -value;
+    }
+
+    public static long parseLong(final ByteBuffer src, final int index, final int length) {
+        if (length <= 0) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src.get(index) == MINUS;
+        int position = negative ? index + 1 : index;
+        final int end = index + length;
+        if (position == end) {
+            throw numberFormatException(src, index, length);
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            final int digit = src.get(position) - ZERO;
+            if (digit < 0 || digit > 9 || value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+                throw numberFormatException(src, index, length);
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw numberFormatException(src, index, length);
+        }
+        return negative ? value : -value;
+    }
+
+    public static long parseLong(final CharSequence src, final int start, final int end) {
+        if (end <= start) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src.charAt(start) == MINUS;
+        int position = negative ? start + 1 : start;
+        if (position == end) {
+            throw numberFormatException(src, start, end);
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            final int digit = src.charAt(position) - ZERO;
+            if (digit < 0 || digit > 9 || value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+                throw numberFormatException(src, start, end);
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw numberFormatException(src, start, end);
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Reads a decimal as an unscaled value of the given scale, i.e. {@code 123.4} with a scale of {@code 2} is read as {@code 12340}. Input with more fractional digits than
+     * the scale is rejected rather than rounded
+     */
+    public static long parseDecimal(final byte[] src, final int offset, final int length, final int scale) {
+        checkScale(scale);
+        if (length <= 0) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src[offset] == MINUS;
+        int position = negative ? offset + 1 : offset;
+        final int end = offset + length;
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        try {
+            for (; position < end; position++) {
+                final byte b = src[position];
+                if (b == DOT && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                final int digit = b - ZERO;
+                if (digit < 0 || digit > 9 || fractionDigits == scale) {
+                    throw numberFormatException(src, offset, length);
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), digit);
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            if (digits == 0) {
+                throw numberFormatException(src, offset, length);
+            }
+            value = Math.multiplyExact(value, POWERS_OF_TEN[scale - Math.max(0, fractionDigits)]);
+        } catch (final ArithmeticException e) {
+            throw numberFormatException(src, offset, length);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a decimal as an unscaled value of the given scale, as {@link #parseDecimal(byte[], int, int, int)} does
+     */
+    public static long parseDecimal(final ByteBuffer src, final int index, final int length, final int scale) {
+        checkScale(scale);
+        if (length <= 0) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src.get(index) == MINUS;
+        int position = negative ? index + 1 : index;
+        final int end = index + length;
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        try {
+            for (; position < end; position++) {
+                final byte b = src.get(position);
+                if (b == DOT && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                final int digit = b - ZERO;
+                if (digit < 0 || digit > 9 || fractionDigits == scale) {
+                    throw numberFormatException(src, index, length);
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), digit);
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            if (digits == 0) {
+                throw numberFormatException(src, index, length);
+            }
+            value = Math.multiplyExact(value, POWERS_OF_TEN[scale - Math.max(0, fractionDigits)]);
+        } catch (final ArithmeticException e) {
+            throw numberFormatException(src, index, length);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a decimal as an unscaled value of the given scale, as {@link #parseDecimal(byte[], int, int, int)} does
+     */
+    public static long parseDecimal(final CharSequence src, final int start, final int end, final int scale) {
+        checkScale(scale);
+        if (end <= start) {
+            throw numberFormatException("");
+        }
+        final boolean negative = src.charAt(start) == MINUS;
+        int position = negative ? start + 1 : start;
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        try {
+            for (; position < end; position++) {
+                final char c = src.charAt(position);
+                if (c == DOT && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                final int digit = c - ZERO;
+                if (digit < 0 || digit > 9 || fractionDigits == scale) {
+                    throw numberFormatException(src, start, end);
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), digit);
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            if (digits == 0) {
+                throw numberFormatException(src, start, end);
+            }
+            value = Math.multiplyExact(value, POWERS_OF_TEN[scale - Math.max(0, fractionDigits)]);
+        } catch (final ArithmeticException e) {
+            throw numberFormatException(src, start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    private static void checkScale(final int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Scale must be in [0, " + (POWERS_OF_TEN.length - 1) + "]: " + scale);
+        }
+    }
+
+    private static NumberFormatException numberFormatException(final byte[] src, final int offset, final int length) {
+        return numberFormatException(new String(src, offset, length, StandardCharsets.US_ASCII));
+    }
+
+    private static NumberFormatException numberFormatException(final ByteBuffer src, final int index, final int length) {
+        final byte[] input = new byte[length];
+        for (int i = 0; i < length; i++) {
+            input[i] = src.get(index + i);
+        }
+        return numberFormatException(input, 0, length);
+    }
+
+    private static NumberFormatException numberFormatException(final CharSequence src, final int start, final int end) {
+        return numberFormatException(src.subSequence(start, end).toString());
+    }
+
+    private static NumberFormatException numberFormatException(final String input) {
+        return new NumberFormatException("For input string: \"" + input + "\"");
+    }
+}
@@ -0,0 +1,292 @@
+package com.nikoskatsanos.benchmarks.codec;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Compares the JDK's int/long/decimal to text round trips with the allocation free {@link AsciiCodec}, the same round trip protocol encoders do on every message:
+ *     <ul>
+ *         <li><b>lastDigit</b> {@code String.valueOf -> substring -> Integer.valueOf}, as in {@code VariousGCsNaiveRunner}, versus {@link AsciiCodec#lastDigit(long)}</li>
+ *         <li><b>parse</b> {@link Integer#parseInt(String)} and {@link Long#parseLong(String)} versus parsing straight from a {@code byte[]}, a {@link ByteBuffer} and a
+ *         {@link CharSequence}</li>
+ *         <li><b>format</b> {@link Integer#toString(int)} and {@link Long#toString(long)} (plus the {@code getBytes()} an encoder needs), {@link String#format(String, Object...)}
+ *         and {@link StringBuilder#append(long)} versus writing straight into a {@code byte[]}, a {@link ByteBuffer} or a {@link StringBuilder}</li>
+ *         <li><b>decimal</b> {@link BigDecimal#valueOf(long, int)} and {@code String.format("%.4f")} versus {@link AsciiCodec}'s decimal writers, and
+ *         {@link BigDecimal#BigDecimal(String)} versus its decimal parsers</li>
+ *     </ul>
+ *     {@link #main(String...)} enables the {@link GCProfiler}, reporting the allocation rate (i.e. {@code gc.alloc.rate.norm} in bytes per operation) of each approach.
+ * </p>
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class AsciiCodecBenchmark {
+
+    private static final int VALUES = 1024;
+    private static final int SCALE = 4;
+
+    private final long[] longs = new long[VALUES];
+    private final int[] ints = new int[VALUES];
+    private final String[] intStrings = new String[VALUES];
+    private final String[] longStrings = new String[VALUES];
+    private final byte[] encodedLongs = new byte[VALUES * AsciiCodec.MAX_LONG_LENGTH];
+    private final int[] encodedLengths = new int[VALUES];
+    private final ByteBuffer encodedLongsBuffer = ByteBuffer.allocateDirect(VALUES * AsciiCodec.MAX_LONG_LENGTH);
+    private final byte[] encodedInts = new byte[VALUES * AsciiCodec.MAX_LONG_LENGTH];
+    private final int[] encodedIntLengths = new int[VALUES];
+    private final ByteBuffer encodedIntsBuffer = ByteBuffer.allocateDirect(VALUES * AsciiCodec.MAX_LONG_LENGTH);
+    private final String[] decimalStrings = new String[VALUES];
+    // a decimal of a long needs one more byte than the long, for the dot
+    private final byte[] encodedDecimals = new byte[VALUES * (AsciiCodec.MAX_LONG_LENGTH + 1)];
+    private final int[] encodedDecimalLengths = new int[VALUES];
+    private final ByteBuffer encodedDecimalsBuffer = ByteBuffer.allocateDirect(VALUES * (AsciiCodec.MAX_LONG_LENGTH + 1));
+
+    private final byte[] output = new byte[64];
+    private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(64);
+    private final StringBuilder outputBuilder = new StringBuilder(64);
+
+    private int idx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < VALUES; i++) {
+            this.ints[i] = random.nextInt();
+            this.intStrings[i] = String.valueOf(this.ints[i]);
+            // varying magnitudes, as prices and quantities are rarely 19 digits long
+            this.longs[i] = random.nextLong() >> random.nextInt(56);
+            this.longStrings[i] = String.valueOf(this.longs[i]);
+            this.encodedLengths[i] = AsciiCodec.putLong(this.encodedLongs, i * AsciiCodec.MAX_LONG_LENGTH, this.longs[i]);
+            AsciiCodec.putLong(this.encodedLongsBuffer, i * AsciiCodec.MAX_LONG_LENGTH, this.longs[i]);
+            this.encodedIntLengths[i] = AsciiCodec.putInt(this.encodedInts, i * AsciiCodec.MAX_LONG_LENGTH, this.ints[i]);
+            AsciiCodec.putInt(this.encodedIntsBuffer, i * AsciiCodec.MAX_LONG_LENGTH, this.ints[i]);
+            this.decimalStrings[i] = BigDecimal.valueOf(this.longs[i], SCALE).toPlainString();
+            this.encodedDecimalLengths[i] = AsciiCodec.putDecimal(this.encodedDecimals, i * (AsciiCodec.MAX_LONG_LENGTH + 1), this.longs[i], SCALE);
+            AsciiCodec.putDecimal(this.encodedDecimalsBuffer, i * (AsciiCodec.MAX_LONG_LENGTH + 1), this.longs[i], SCALE);
+        }
+    }
+
+    private int next() {
+        return this.idx = (this.idx + 1) & (VALUES - 1);
+    }
+
+    // --- last digit ---
+
+    @Benchmark
+    public int lastDigitViaString() {
+        final String str = String.valueOf(this.ints[this.next()]);
+        return Integer.valueOf(str.substring(str.length() - 1));
+    }
+
+    @Benchmark
+    public int lastDigitCodec() {
+        return AsciiCodec.lastDigit(this.ints[this.next()]);
+    }
+
+    // --- parse ---
+
+    @Benchmark
+    public int parseIntJdk() {
+        return Integer.parseInt(this.intStrings[this.next()]);
+    }
+
+    @Benchmark
+    public int parseIntCodecBytes() {
+        final int i = this.next();
+        return AsciiCodec.parseInt(this.encodedInts, i * AsciiCodec.MAX_LONG_LENGTH, this.encodedIntLengths[i]);
+    }
+
+    @Benchmark
+    public int parseIntCodecByteBuffer() {
+        final int i = this.next();
+        return AsciiCodec.parseInt(this.encodedIntsBuffer, i * AsciiCodec.MAX_LONG_LENGTH, this.encodedIntLengths[i]);
+    }
+
+    @Benchmark
+    public int parseIntCodecCharSequence() {
+        final String str = this.intStrings[this.next()];
+        return AsciiCodec.parseInt(str, 0, str.length());
+    }
+
+    @Benchmark
+    public long parseLongJdk() {
+        return Long.parseLong(this.longStrings[this.next()]);
+    }
+
+    @Benchmark
+    public long parseLongJdkFromBytes() {
+        final int i = this.next();
+        return Long.parseLong(new String(this.encodedLongs, i * AsciiCodec.MAX_LONG_LENGTH, this.encodedLengths[i]));
+    }
+
+    @Benchmark
+    public long parseLongCodecBytes() {
+        final int i = this.next();
+        return AsciiCodec.parseLong(this.encodedLongs, i * AsciiCodec.MAX_LONG_LENGTH, this.encodedLengths[i]);
+    }
+
+    @Benchmark
+    public long parseLongCodecByteBuffer() {
+        final int i = this.next();
+        return AsciiCodec.parseLong(this.encodedLongsBuffer, i * AsciiCodec.MAX_LONG_LENGTH, this.encodedLengths[i]);
+    }
+
+    @Benchmark
+    public long parseLongCodecCharSequence() {
+        final String str = this.longStrings[this.next()];
+        return AsciiCodec.parseLong(str, 0, str.length());
+    }
+
+    // --- format ---
+
+    @Benchmark
+    public void formatIntJdk(final Blackhole blackhole) {
+        blackhole.consume(Integer.toString(this.ints[this.next()]).getBytes());
+    }
+
+    @Benchmark
+    public void formatIntCodecBytes(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putInt(this.output, 0, this.ints[this.next()]));
+        blackhole.consume(this.output);
+    }
+
+    @Benchmark
+    public void formatIntCodecByteBuffer(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putInt(this.outputBuffer, 0, this.ints[this.next()]));
+        blackhole.consume(this.outputBuffer);
+    }
+
+    @Benchmark
+    public void formatIntCodecStringBuilder(final Blackhole blackhole) {
+        this.outputBuilder.setLength(0);
+        blackhole.consume(AsciiCodec.appendInt(this.outputBuilder, this.ints[this.next()]));
+        blackhole.consume(this.outputBuilder);
+    }
+
+    @Benchmark
+    public void formatLongJdk(final Blackhole blackhole) {
+        blackhole.consume(Long.toString(this.longs[this.next()]).getBytes());
+    }
+
+    @Benchmark
+    public void formatLongStringFormat(final Blackhole blackhole) {
+        blackhole.consume(String.format("%d", this.longs[this.next()]).getBytes());
+    }
+
+    @Benchmark
+    public void formatLongCodecBytes(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putLong(this.output, 0, this.longs[this.next()]));
+        blackhole.consume(this.output);
+    }
+
+    @Benchmark
+    public void formatLongCodecByteBuffer(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putLong(this.outputBuffer, 0, this.longs[this.next()]));
+        blackhole.consume(this.outputBuffer);
+    }
+
+    @Benchmark
+    public void formatLongStringBuilderJdk(final Blackhole blackhole) {
+        this.outputBuilder.setLength(0);
+        blackhole.consume(this.outputBuilder.append(this.longs[this.next()]));
+    }
+
+    @Benchmark
+    public void formatLongCodecStringBuilder(final Blackhole blackhole) {
+        this.outputBuilder.setLength(0);
+        blackhole.consume(AsciiCodec.appendLong(this.outputBuilder, this.longs[this.next()]));
+        blackhole.consume(this.outputBuilder);
+    }
+
+    // --- decimal ---
+
+    @Benchmark
+    public void formatDecimalBigDecimal(final Blackhole blackhole) {
+        blackhole.consume(BigDecimal.valueOf(this.longs[this.next()], SCALE).toPlainString().getBytes());
+    }
+
+    @Benchmark
+    public void formatDecimalStringFormat(final Blackhole blackhole) {
+        blackhole.consume(String.format("%.4f", this.longs[this.next()] / 10_000D).getBytes());
+    }
+
+    @Benchmark
+    public void formatDecimalCodec(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putDecimal(this.output, 0, this.longs[this.next()], SCALE));
+        blackhole.consume(this.output);
+    }
+
+    @Benchmark
+    public void formatDecimalCodecByteBuffer(final Blackhole blackhole) {
+        blackhole.consume(AsciiCodec.putDecimal(this.outputBuffer, 0, this.longs[this.next()], SCALE));
+        blackhole.consume(this.outputBuffer);
+    }
+
+    @Benchmark
+    public void formatDecimalCodecStringBuilder(final Blackhole blackhole) {
+        this.outputBuilder.setLength(0);
+        blackhole.consume(AsciiCodec.appendDecimal(this.outputBuilder, this.longs[this.next()], SCALE));
+        blackhole.consume(this.outputBuilder);
+    }
+
+    @Benchmark
+    public long parseDecimalBigDecimal() {
+        return new BigDecimal(this.decimalStrings[this.next()]).unscaledValue().longValue();
+    }
+
+    @Benchmark
+    public long parseDecimalCodecBytes() {
+        final int i = this.next();
+        return AsciiCodec.parseDecimal(this.encodedDecimals, i * (AsciiCodec.MAX_LONG_LENGTH + 1), this.encodedDecimalLengths[i], SCALE);
+    }
+
+    @Benchmark
+    public long parseDecimalCodecByteBuffer() {
+        final int i = this.next();
+        return AsciiCodec.parseDecimal(this.encodedDecimalsBuffer, i * (AsciiCodec.MAX_LONG_LENGTH + 1), this.encodedDecimalLengths[i], SCALE);
+    }
+
+    @Benchmark
+    public long parseDecimalCodecCharSequence() {
+        final String str = this.decimalStrings[this.next()];
+        return AsciiCodec.parseDecimal(str, 0, str.length(), SCALE);
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(AsciiCodecBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend(
+                "-Xbatch",
+                "-XX:-TieredCompilation",
+                "-XX:+UnlockDiagnosticVMOptions"
+            )
+            .build();
+
+        new Runner(options).run();
+    }
+}
@@ -1,5 +1,6 @@
 package com.nikoskatsanos.benchmarks.enums;
 
+import com.nikoskatsanos.benchmarks.profile.CompilationProfiler;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -68,12 +69,11 @@ public class EnumEqualityBenchmark {
             .forks(1)
             .warmupIterations(5)
             .measurementIterations(10)
+            .addProfiler(CompilationProfiler.class)
             .jvmArgsAppend(
                 "-Xbatch",
                 "-XX:-TieredCompilation",
                 "-XX:+UnlockDiagnosticVMOptions",
-                "-XX:+LogCompilation",
-                "-XX:LogFile=compiler.out",
                 "-XX:PrintAssemblyOptions=syntax"
             )
             .build();
@@ -90,7 +90,21 @@ public class Loops {
         }
     }
 
-    private static long forLoopArray() {
+    /**
+     * @return the values summed over as an array, shared
+     */
+    public static int[] values() {
+        return VALUES;
+    }
+
+    /**
+     * @return the values summed over as a collection, shared
+     */
+    public static List<Integer> listValues() {
+        return LIST_VALUES;
+    }
+
+    public static long forLoopArray() {
         long sum = 0;
         for (int i = 0; i < VALUES.length; i++) {
             sum += VALUES[i];
@@ -114,7 +128,7 @@ public class Loops {
         return sum;
     }
 
-    private static long forLoopList() {
+    public static long forLoopList() {
         long sum = 0;
         for (int i = 0; i < LIST_VALUES.size(); i++) {
             sum += LIST_VALUES.get(i);
@@ -0,0 +1,231 @@
+package com.nikoskatsanos.benchmarks.footprint;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The memory retained by an object graph, i.e. every object reachable from a root, walked in the spirit of JOL's {@code GraphLayout}
+ * <p>
+ *     Sizes are those of the running JVM: instance sizes derive from the offsets of their fields and array sizes from their base offset and index scale, both as reported by
+ *     {@code sun.misc.Unsafe}, rounded up to the object alignment. Fields are read through {@code sun.misc.Unsafe} too, so that the JDK's own structures can be walked without
+ *     opening {@code java.base}.
+ * </p>
+ * <p>
+ *     {@link Class} objects and enum constants are not counted nor walked into, as they are shared by every structure referring to them, and neither are the objects given
+ *     as excluded (i.e. the enclosing instance an anonymous class references). Anything else reachable is counted, including what the root shares with other graphs (i.e. the
+ *     boxed values {@link Integer#valueOf(int)} caches). Instances whose fields cannot be inspected (i.e. lambdas) count as an object header, their fields not walked.
+ * </p>
+ */
+public final class Footprint {
+
+    // sun.misc.Unsafe is looked up rather than linked against: javac warns about every reference to it, with no way to suppress the warnings
+    private static final MethodHandle OBJECT_FIELD_OFFSET;
+    private static final MethodHandle ARRAY_BASE_OFFSET;
+    private static final MethodHandle ARRAY_INDEX_SCALE;
+    private static final MethodHandle GET_OBJECT;
+    private static final long ALIGNMENT;
+    private static final long REFERENCE_SIZE;
+    private static final long HEADER;
+
+    private static final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            final Class<?> unsafeType = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeType.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            OBJECT_FIELD_OFFSET = lookup.findVirtual(unsafeType, "objectFieldOffset", MethodType.methodType(long.class, Field.class)).bindTo(unsafe);
+            ARRAY_BASE_OFFSET = lookup.findVirtual(unsafeType, "arrayBaseOffset", MethodType.methodType(int.class, Class.class)).bindTo(unsafe);
+            ARRAY_INDEX_SCALE = lookup.findVirtual(unsafeType, "arrayIndexScale", MethodType.methodType(int.class, Class.class)).bindTo(unsafe);
+            GET_OBJECT = lookup.findVirtual(unsafeType, "getObject", MethodType.methodType(Object.class, Object.class, long.class)).bindTo(unsafe);
+            ALIGNMENT = Long.parseLong(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption("ObjectAlignmentInBytes").getValue());
+            REFERENCE_SIZE = arrayIndexScale(Object[].class);
+            // the first field of an instance comes right after its header
+            HEADER = objectFieldOffset(HeaderProbe.class.getDeclaredField("value"));
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long bytes;
+    private final long objects;
+
+    private Footprint(final long bytes, final long objects) {
+        this.bytes = bytes;
+        this.objects = objects;
+    }
+
+    /**
+     * @param excluded objects reachable from the root that are not part of it, not counted nor walked into
+     * @return the memory retained by the given root
+     */
+    public static Footprint of(final Object root, final Object... excluded) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(visited, excluded);
+        final Deque<Object> pending = new ArrayDeque<>();
+        long bytes = 0L;
+        long objects = 0L;
+        if (isCounted(root) && visited.add(root)) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            final Object current = pending.pop();
+            final Class<?> type = current.getClass();
+            objects++;
+            if (type.isArray()) {
+                final int length = Array.getLength(current);
+                bytes += align(arrayBaseOffset(type) + (long) length * arrayIndexScale(type));
+                if (!type.getComponentType().isPrimitive()) {
+                    for (final Object element : (Object[]) current) {
+                        if (isCounted(element) && visited.add(element)) {
+                            pending.push(element);
+                        }
+                    }
+                }
+            } else {
+                final Layout layout = LAYOUTS.computeIfAbsent(type, Layout::of);
+                bytes += layout.size;
+                for (final long offset : layout.references) {
+                    final Object referent = getObject(current, offset);
+                    if (isCounted(referent) && visited.add(referent)) {
+                        pending.push(referent);
+                    }
+                }
+            }
+        }
+        return new Footprint(bytes, objects);
+    }
+
+    private static long objectFieldOffset(final Field field) {
+        try {
+            return (long) OBJECT_FIELD_OFFSET.invokeExact(field);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int arrayBaseOffset(final Class<?> type) {
+        try {
+            return (int) ARRAY_BASE_OFFSET.invokeExact(type);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int arrayIndexScale(final Class<?> type) {
+        try {
+            return (int) ARRAY_INDEX_SCALE.invokeExact(type);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Object getObject(final Object object, final long offset) {
+        try {
+            return (Object) GET_OBJECT.invokeExact(object, offset);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static boolean isCounted(final Object object) {
+        return object != null && !(object instanceof Class) && !(object instanceof Enum);
+    }
+
+    private static long align(final long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long getObjects() {
+        return this.objects;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes in %d objects", this.bytes, this.objects);
+    }
+
+    /**
+     * An instance's size and the offsets of its reference fields, superclasses' included
+     */
+    private static class Layout {
+
+        private final long size;
+        private final long[] references;
+
+        private Layout(final long size, final long[] references) {
+            this.size = size;
+            this.references = references;
+        }
+
+        static Layout of(final Class<?> type) {
+            long end = HEADER;
+            final List<Long> references = new ArrayList<>();
+            try {
+                for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                    for (final Field field : current.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        final long offset = objectFieldOffset(field);
+                        end = Math.max(end, offset + sizeOf(field.getType()));
+                        if (!field.getType().isPrimitive()) {
+                            references.add(offset);
+                        }
+                    }
+                }
+            } catch (final UnsupportedOperationException e) {
+                // hidden classes (i.e. lambdas) and records do not disclose their field offsets
+                return new Layout(align(HEADER), new long[0]);
+            }
+            return new Layout(align(end), references.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        private static long sizeOf(final Class<?> type) {
+            if (type == long.class || type == double.class) {
+                return 8;
+            } else if (type == int.class || type == float.class) {
+                return 4;
+            } else if (type == short.class || type == char.class) {
+                return 2;
+            } else if (type == byte.class || type == boolean.class) {
+                return 1;
+            }
+            return REFERENCE_SIZE;
+        }
+    }
+
+    private static class HeaderProbe {
+
+        private byte value;
+    }
+}
@@ -0,0 +1,196 @@
+package com.nikoskatsanos.benchmarks.footprint;
+
+import com.nikoskatsanos.benchmarks.epsilon.Loops;
+import com.nikoskatsanos.benchmarks.gc.VariousGCsNaiveRunner;
+import com.nikoskatsanos.benchmarks.loops.SingleElementLoopBenchmark;
+import com.nikoskatsanos.benchmarks.switchvsmap.SwitchVsMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Puts the memory the project's own structures cost next to their speed, the {@link FootprintProfiler} reporting the bytes each structure retains, in total and per
+ *     element (the elements themselves included):
+ *     <ul>
+ *         <li><b>listenerArray</b>, <b>listenerList</b>, <b>listenerSet</b> the array, {@code ArrayList} and {@code HashSet} holding the single listener of
+ *         {@link SingleElementLoopBenchmark.Dispatcher}, invoked in a loop</li>
+ *         <li><b>hashMap</b>, <b>enumMap</b> {@link SwitchVsMap}'s lookups of its enum's values</li>
+ *         <li><b>forLoopArray</b>, <b>forLoopList</b> {@link Loops}' sums over its {@code int[]} and {@code ArrayList<Integer>} of the same values</li>
+ *         <li><b>count</b> the structure {@link VariousGCsNaiveRunner} counts last digits into, per {@link VariousGCsNaiveRunner.Mode}: a {@code ConcurrentHashMap} of
+ *         synchronized holders of a boxed count, a padded {@code AtomicLongArray} or an {@code IntervalRecorder}</li>
+ *     </ul>
+ *     The owners of the structures are excluded from the footprints, as the anonymous classes the dispatcher and {@link SwitchVsMap} fill their containers with reference
+ *     them.
+ * </p>
+ * <p>
+ *     {@link #main(String...)} prints a summary of throughput, footprint and footprint per element.
+ * </p>
+ */
+public class FootprintBenchmark {
+
+    private static final int DIGITS = 10;
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void listenerArray(final Dispatcher dispatcher, final Blackhole blackhole) {
+        dispatcher.dispatcher.invokeInArrayLoop(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void listenerList(final Dispatcher dispatcher, final Blackhole blackhole) {
+        dispatcher.dispatcher.invokeInListLoop(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void listenerSet(final Dispatcher dispatcher, final Blackhole blackhole) {
+        dispatcher.dispatcher.invokeInSetLoop(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void hashMap(final EnumKeyedMaps maps, final Blackhole blackhole) {
+        maps.switchVsMap.hashMapRandomInput(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void enumMap(final EnumKeyedMaps maps, final Blackhole blackhole) {
+        maps.switchVsMap.enumMapRandomInput(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long forLoopArray(final LoopValues values) {
+        return Loops.forLoopArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long forLoopList(final LoopValues values) {
+        return Loops.forLoopList();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void count(final DigitCounters counters) {
+        counters.runner.count(ThreadLocalRandom.current().nextInt());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dispatcher {
+
+        private final SingleElementLoopBenchmark.Dispatcher dispatcher = new SingleElementLoopBenchmark.Dispatcher();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            FootprintProfiler.register("listenerArray", this.dispatcher.getSingleListenerArray(), 1, this.dispatcher);
+            FootprintProfiler.register("listenerList", this.dispatcher.getSingleListenerList(), 1, this.dispatcher);
+            FootprintProfiler.register("listenerSet", this.dispatcher.getSingleListenerSet(), 1, this.dispatcher);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EnumKeyedMaps {
+
+        private final SwitchVsMap switchVsMap = new SwitchVsMap();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            FootprintProfiler.register("hashMap", this.switchVsMap.getValToStr(), this.switchVsMap.getValToStr().size(), this.switchVsMap);
+            FootprintProfiler.register("enumMap", this.switchVsMap.getEnumValToStr(), this.switchVsMap.getEnumValToStr().size(), this.switchVsMap);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoopValues {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            FootprintProfiler.register("forLoopArray", Loops.values(), Loops.values().length);
+            FootprintProfiler.register("forLoopList", Loops.listValues(), Loops.listValues().size());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DigitCounters {
+
+        @Param({"GARBAGE", "GARBAGE_FREE", "RECORDER"})
+        private VariousGCsNaiveRunner.Mode mode;
+
+        private VariousGCsNaiveRunner runner;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.runner = new VariousGCsNaiveRunner(this.mode);
+            FootprintProfiler.register("count", this.runner.getCounters(), DIGITS, this.runner);
+        }
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(FootprintBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .addProfiler(FootprintProfiler.class)
+            .jvmArgsAppend(
+                "-Xbatch",
+                "-XX:-TieredCompilation",
+                "-XX:+UnlockDiagnosticVMOptions"
+            )
+            .build();
+
+        final Collection<RunResult> results = new Runner(options).run();
+
+        System.out.println(String.format("%-26s %-16s %12s %12s %12s", "Benchmark", "params", "ops/us", "bytes", "B/elem"));
+        for (final RunResult result : results) {
+            final String benchmark = result.getParams().getBenchmark();
+            final List<String> params = new ArrayList<>();
+            result.getParams().getParamsKeys().forEach(key -> params.add(key + "=" + result.getParams().getParam(key)));
+            System.out.println(String.format("%-26s %-16s %12.3f %12s %12s",
+                benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                String.join(",", params),
+                result.getPrimaryResult().getScore(),
+                secondary(result, "·footprint", "%.0f"),
+                secondary(result, "·footprint.perElement", "%.1f")));
+        }
+    }
+
+    private static String secondary(final RunResult result, final String label, final String format) {
+        final Result secondary = result.getSecondaryResults().get(label);
+        return secondary == null ? "-" : String.format(format, secondary.getScore());
+    }
+}
@@ -0,0 +1,75 @@
+package com.nikoskatsanos.benchmarks.footprint;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * A JMH profiler reporting the {@link Footprint} of the structure a benchmark exercises as secondary results, next to its score
+ * <p>
+ *     Enabled with {@code -prof com.nikoskatsanos.benchmarks.footprint.FootprintProfiler}, or {@code .addProfiler(FootprintProfiler.class)} on the {@code OptionsBuilder}.
+ *     Benchmarks {@link #register(String, Object, int, Object...)} their structures when setting up, under the name of the benchmark method exercising them, and after every iteration
+ *     the structure registered for the running benchmark is measured, hence any growth during the iteration shows.
+ * </p>
+ */
+public class FootprintProfiler implements InternalProfiler {
+
+    private static final Map<String, Registration> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * @param benchmark the simple name of the benchmark method exercising the structure
+     * @param root the structure
+     * @param elements the elements it holds, for the footprint per element
+     * @param excluded objects the structure references but does not hold, i.e. its owner when it is an anonymous class
+     */
+    public static void register(final String benchmark, final Object root, final int elements, final Object... excluded) {
+        REGISTRATIONS.put(benchmark, new Registration(root, elements, excluded));
+    }
+
+    @Override
+    public String getDescription() {
+        return "Memory retained by the structure a benchmark registered, in total and per element";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        final String benchmark = benchmarkParams.getBenchmark();
+        final Registration registration = REGISTRATIONS.get(benchmark.substring(benchmark.lastIndexOf('.') + 1));
+        if (registration == null) {
+            return Collections.emptyList();
+        }
+        final Footprint footprint = Footprint.of(registration.root, registration.excluded);
+        return Arrays.asList(
+            new ScalarResult("·footprint", footprint.getBytes(), "B", AggregationPolicy.AVG),
+            new ScalarResult("·footprint.perElement", registration.elements == 0 ? 0 : (double) footprint.getBytes() / registration.elements, "B/elem",
+                AggregationPolicy.AVG),
+            new ScalarResult("·footprint.objects", footprint.getObjects(), "#", AggregationPolicy.AVG)
+        );
+    }
+
+    private static class Registration {
+
+        private final Object root;
+        private final int elements;
+        private final Object[] excluded;
+
+        Registration(final Object root, final int elements, final Object[] excluded) {
+            this.root = root;
+            this.elements = elements;
+            this.excluded = excluded;
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.nikoskatsanos.benchmarks.gc;
 
+import com.nikoskatsanos.benchmarks.codec.AsciiCodec;
+import com.nikoskatsanos.benchmarks.hiccup.HiccupMeter;
+import com.nikoskatsanos.benchmarks.metrics.Histogram;
+import com.nikoskatsanos.benchmarks.metrics.IntervalRecorder;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.IntStream;
 
 /**
@@ -19,6 +27,23 @@ import java.util.stream.IntStream;
  *         <li><b><a href="https://wiki.openjdk.java.net/display/shenandoah/Main">ShenandoahGC</a></b></li>
  *     </ul>
  * </p>
+ * <h2>Modes</h2>
+ * <p>
+ *     The runner can be started in one of the below {@link Mode}s, passed as the first program argument:
+ *     <ul>
+ *         <li><b>GARBAGE</b> (default) a {@link String}, a substring and boxed {@link Integer}s are created on every iteration and every increment takes a monitor</li>
+ *         <li><b>GARBAGE_FREE</b> the last digit is computed arithmetically and counted into a padded {@link AtomicLongArray}. Reporting reuses a preallocated snapshot and
+ *         {@link StringBuilder}</li>
+ *         <li><b>RECORDER</b> the last digit is computed arithmetically and recorded, wait-free, into an {@link IntervalRecorder}. Every print swaps the recorder's interval and
+ *         reports the counts and rates of that interval only</li>
+ *     </ul>
+ *     Every 10 seconds the runner reports the operations per second and the allocation rate of the worker thread, along with the collections observed, so the three modes can
+ *     be compared under each GC. GARBAGE and GARBAGE_FREE print each digit's running total since start. RECORDER prints each digit's count and rate per second over the last
+ *     interval only, and its operations per second are derived from the counts recorded in those intervals.
+ * </p>
+ * <p>
+ *     A {@link HiccupMeter} runs alongside, logging the stalls observed by the application and the GC pauses they correlate with.
+ * </p>
  * <h2>JVM OPTS</h2>
  * <p>
  *     The below JVM opts were used in all cases:
@@ -27,29 +52,206 @@ import java.util.stream.IntStream;
  */
 public class VariousGCsNaiveRunner {
 
+    public enum Mode {
+        GARBAGE, GARBAGE_FREE, RECORDER
+    }
+
+    private static final int DIGITS = 10;
+    // 16 longs = 128 bytes between two counters, enough to keep them in different cache lines even with adjacent line prefetching
+    private static final int PADDING = 16;
+
+    private final Mode mode;
+
     private final Map<Integer, MutableIntHolder> histo = new ConcurrentHashMap<>();
 
-    private final ThreadLocalRandom random = ThreadLocalRandom.current();
+    private final AtomicLongArray paddedHisto = new AtomicLongArray((DIGITS + 1) * PADDING);
+
+    private final IntervalRecorder recorder = new IntervalRecorder();
+    private final Histogram intervalHistogram = new Histogram();
+    private long recordedOps;
+
+    private final long[] snapshot = new long[DIGITS];
+    private final StringBuilder reportBuilder = new StringBuilder(512);
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> gcMXBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private volatile long runnerThreadId = -1;
+
+    private long lastReportNanos = System.nanoTime();
+    private long lastOps;
+    private long lastAllocatedBytes;
+    private long lastGcCount;
+    private long lastGcMillis;
 
     public VariousGCsNaiveRunner() {
-        IntStream.range(0, 10).forEach(i -> histo.put(i, new MutableIntHolder()));
+        this(Mode.GARBAGE);
+    }
+
+    public VariousGCsNaiveRunner(final Mode mode) {
+        this.mode = mode;
+        IntStream.range(0, DIGITS).forEach(i -> histo.put(i, new MutableIntHolder()));
     }
 
     public void run() {
+        this.runnerThreadId = Thread.currentThread().getId();
+        if (this.mode == Mode.GARBAGE_FREE) {
+            this.runGarbageFree();
+        } else if (this.mode == Mode.RECORDER) {
+            this.runRecorder();
+        } else {
+            this.runWithGarbage();
+        }
+    }
+
+    /**
+     * Counts the last digit of a single value, as every iteration of {@link #run()} does in the runner's {@link Mode}
+     */
+    public void count(final int value) {
+        if (this.mode == Mode.GARBAGE_FREE) {
+            this.countGarbageFree(value);
+        } else if (this.mode == Mode.RECORDER) {
+            this.countRecorder(value);
+        } else {
+            this.countWithGarbage(value);
+        }
+    }
+
+    /**
+     * @return the structure the last digits are counted into in the runner's {@link Mode}
+     */
+    public Object getCounters() {
+        if (this.mode == Mode.GARBAGE_FREE) {
+            return this.paddedHisto;
+        } else if (this.mode == Mode.RECORDER) {
+            return this.recorder;
+        }
+        return this.histo;
+    }
+
+    private void runWithGarbage() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            this.countWithGarbage(random.nextInt());
+        }
+    }
+
+    private void runGarbageFree() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
         while (true) {
-            final String randomStr = String.valueOf(random.nextInt());
-            int lastDigit = Integer.valueOf(randomStr.substring(randomStr.length() - 1));
-            histo.compute(lastDigit, (k, v) -> v.increment());
+            this.countGarbageFree(random.nextInt());
         }
     }
 
+    private void runRecorder() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            this.countRecorder(random.nextInt());
+        }
+    }
+
+    private void countWithGarbage(final int value) {
+        final String randomStr = String.valueOf(value);
+        int lastDigit = Integer.valueOf(randomStr.substring(randomStr.length() - 1));
+        histo.compute(lastDigit, (k, v) -> v.increment());
+    }
+
+    private void countGarbageFree(final int value) {
+        this.paddedHisto.getAndIncrement(index(AsciiCodec.lastDigit(value)));
+    }
+
+    private void countRecorder(final int value) {
+        this.recorder.recordValue(AsciiCodec.lastDigit(value));
+    }
+
+    private static int index(final int digit) {
+        return (digit + 1) * PADDING;
+    }
+
     public String print() {
+        if (this.mode == Mode.GARBAGE_FREE) {
+            this.reportBuilder.setLength(0);
+            this.takeSnapshot();
+            for (int i = 0; i < DIGITS; i++) {
+                this.reportBuilder.append(i).append(": ").append(this.snapshot[i]).append('\n');
+            }
+            return this.reportBuilder.toString();
+        }
+        if (this.mode == Mode.RECORDER) {
+            final long intervalNanos = this.recorder.getIntervalHistogram(this.intervalHistogram);
+            this.recordedOps += this.intervalHistogram.getTotalCount();
+            this.reportBuilder.setLength(0);
+            for (int i = 0; i < DIGITS; i++) {
+                final long count = this.intervalHistogram.getCountAtValue(i);
+                this.reportBuilder.append(i).append(": ").append(count).append(" (").append(count * 1_000_000_000L / intervalNanos).append("/s)\n");
+            }
+            return this.reportBuilder.toString();
+        }
+
         final StringBuilder builder = new StringBuilder();
         histo.entrySet().stream().sorted(Comparator.comparingInt(Entry::getKey)).forEach(e -> builder.append(String.format("%d: %d\n", e.getKey(), e.getValue().value())));
 
         return builder.toString();
     }
 
+    /**
+     * Reports operations per second, the allocation rate of the thread executing {@link #run()} and the collections observed since the previous report. Meant to be called
+     * periodically by a single reporting thread. In {@link Mode#RECORDER} the operations are the ones collected by {@link #print()}
+     */
+    public String report() {
+        final long now = System.nanoTime();
+        final long ops = this.totalOps();
+        final long allocatedBytes = this.runnerThreadId == -1 ? 0 : this.threadMXBean.getThreadAllocatedBytes(this.runnerThreadId);
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (int i = 0; i < this.gcMXBeans.size(); i++) {
+            gcCount += Math.max(0, this.gcMXBeans.get(i).getCollectionCount());
+            gcMillis += Math.max(0, this.gcMXBeans.get(i).getCollectionTime());
+        }
+
+        final double seconds = (now - this.lastReportNanos) / 1_000_000_000D;
+        final long opsPerSec = (long) ((ops - this.lastOps) / seconds);
+        final long allocatedMBPerSec = (long) ((allocatedBytes - this.lastAllocatedBytes) / seconds / (1024 * 1024));
+
+        this.reportBuilder.setLength(0);
+        this.reportBuilder.append("mode=").append(this.mode)
+            .append(" ops/s=").append(opsPerSec)
+            .append(" alloc MB/s=").append(allocatedMBPerSec)
+            .append(" gcCount=").append(gcCount - this.lastGcCount)
+            .append(" gcTimeMs=").append(gcMillis - this.lastGcMillis);
+
+        this.lastReportNanos = now;
+        this.lastOps = ops;
+        this.lastAllocatedBytes = allocatedBytes;
+        this.lastGcCount = gcCount;
+        this.lastGcMillis = gcMillis;
+
+        return this.reportBuilder.toString();
+    }
+
+    private long totalOps() {
+        long total = 0;
+        if (this.mode == Mode.GARBAGE_FREE) {
+            this.takeSnapshot();
+            for (int i = 0; i < DIGITS; i++) {
+                total += this.snapshot[i];
+            }
+        } else if (this.mode == Mode.RECORDER) {
+            total = this.recordedOps;
+        } else {
+            for (int i = 0; i < DIGITS; i++) {
+                total += this.histo.get(i).value();
+            }
+        }
+        return total;
+    }
+
+    private void takeSnapshot() {
+        for (int i = 0; i < DIGITS; i++) {
+            this.snapshot[i] = this.paddedHisto.get(index(i));
+        }
+    }
+
     private static class MutableIntHolder {
         private Integer num = 0;// boxed object to allow for more garbage
 
@@ -64,12 +266,17 @@ public class VariousGCsNaiveRunner {
     }
 
     public static void main(final String... args) {
-        final VariousGCsNaiveRunner zgc = new VariousGCsNaiveRunner();
+        final Mode mode = args.length > 0 ? Mode.valueOf(args[0].toUpperCase()) : Mode.GARBAGE;
+        final VariousGCsNaiveRunner zgc = new VariousGCsNaiveRunner(mode);
+
+        final HiccupMeter hiccupMeter = new HiccupMeter(System.out).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(hiccupMeter::close));
 
         Executors.newSingleThreadExecutor().execute(zgc::run);
 
         Executors.newScheduledThreadPool(1).scheduleAtFixedRate(() -> {
             System.out.println(zgc.print());
+            System.out.println(zgc.report());
         }, 10, 10, TimeUnit.SECONDS);
     }
 }
@@ -0,0 +1,27 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.util.concurrent.Exchanger;
+
+/**
+ * A ping-pong over an {@link Exchanger}
+ * <p>
+ *     A single exchange hands messages both ways, but returns to the pinger as soon as it finds the ponger waiting, before the ponger has even been woken up. Each round trip is
+ *     hence two exchanges, the second one only completing once the ponger is running and back at the exchanger.
+ * </p>
+ */
+class ExchangerPingPong extends LoopPingPong {
+
+    private final Exchanger<Object> exchanger = new Exchanger<>();
+
+    @Override
+    void roundTrip() throws InterruptedException {
+        this.exchanger.exchange(PING);
+        this.exchanger.exchange(null);
+    }
+
+    @Override
+    void pong() throws InterruptedException {
+        this.exchanger.exchange(null);
+        this.exchanger.exchange(PONG);
+    }
+}
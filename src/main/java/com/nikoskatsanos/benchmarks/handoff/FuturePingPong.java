@@ -0,0 +1,40 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * A ping-pong over {@link CompletableFuture}s: each ping is a {@link CompletableFuture#supplyAsync(Supplier, java.util.concurrent.Executor)} onto a single threaded
+ * executor, its pong the {@link CompletableFuture#join()} of the result
+ * <p>
+ *     Beyond the hand-overs, each round trip pays for a future, the executor's task and its queue's node, the typical shape of asynchronous code.
+ * </p>
+ */
+class FuturePingPong extends PingPong {
+
+    private static final Supplier<Object> PONGER = () -> PONG;
+
+    private ExecutorService executor;
+
+    @Override
+    PingPong start() {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "ponger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return this;
+    }
+
+    @Override
+    void roundTrip() {
+        CompletableFuture.supplyAsync(PONGER, this.executor).join();
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * The mechanisms a thread can hand a message to another thread with
+ */
+public enum Handoff {
+
+    SYNCHRONOUS_QUEUE {
+        @Override
+        PingPong create() {
+            return new QueuePingPong(new SynchronousQueue<>(), new SynchronousQueue<>());
+        }
+    },
+    EXCHANGER {
+        @Override
+        PingPong create() {
+            return new ExchangerPingPong();
+        }
+    },
+    ARRAY_BLOCKING_QUEUE {
+        @Override
+        PingPong create() {
+            return new QueuePingPong(new ArrayBlockingQueue<>(1), new ArrayBlockingQueue<>(1));
+        }
+    },
+    LINKED_TRANSFER_QUEUE {
+        @Override
+        PingPong create() {
+            return new QueuePingPong(new LinkedTransferQueue<>(), new LinkedTransferQueue<>());
+        }
+    },
+    PARK_UNPARK {
+        @Override
+        PingPong create() {
+            return new ParkPingPong(false);
+        }
+    },
+    SPIN {
+        @Override
+        PingPong create() {
+            return new SpinPingPong();
+        }
+    },
+    COMPLETABLE_FUTURE {
+        @Override
+        PingPong create() {
+            return new FuturePingPong();
+        }
+    },
+    VIRTUAL_THREAD {
+        @Override
+        PingPong create() {
+            return new ParkPingPong(true);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return ParkPingPong.supportsVirtualThreads();
+        }
+    };
+
+    abstract PingPong create();
+
+    /**
+     * @return whether this mechanism is supported by the running JVM
+     */
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * @return a ping-pong over this mechanism, its ponger running
+     */
+    PingPong start() {
+        return this.create().start();
+    }
+}
@@ -0,0 +1,107 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Measures the round trip time of handing a message to another thread and getting an answer back, for each {@link Handoff} mechanism. The
+ *     {@code BlockingQueueBackedActor} of {@code SingleVsManyThreadsBenchmark} shows handing work over costing far more than the work itself, this isolates that cost:
+ *     <ul>
+ *         <li><b>blocking</b> ({@code SYNCHRONOUS_QUEUE}, {@code EXCHANGER}, {@code ARRAY_BLOCKING_QUEUE}, {@code LINKED_TRANSFER_QUEUE}, {@code PARK_UNPARK}) a round trip is
+ *         two wake-ups of a parked thread, i.e. two trips through the OS scheduler, minus whatever spinning before parking saves</li>
+ *         <li><b>SPIN</b> a round trip is two cache line transfers between cores, as long as each thread has a core of its own</li>
+ *         <li><b>COMPLETABLE_FUTURE</b> asynchronous code's hand-over, an executor's task and a future per round trip on top of the wake-ups</li>
+ *         <li><b>VIRTUAL_THREAD</b> the ponger a virtual thread, hence a continuation unmounted when parking and rescheduled on a carrier thread when unparked (JDK 21+ only)</li>
+ *     </ul>
+ *     Results are per round trip, in percentiles, as the tail is where the scheduler shows.
+ * </p>
+ * <p>
+ *     {@code VIRTUAL_THREAD} is left out of the default parameters, so that runs on a JVM without virtual threads do not fail. {@link #main(String...)} runs every mechanism
+ *     the JVM supports, it included, unless given {@code -p handoff=...}, and prints a summary of their percentiles. Elsewhere it is to be asked for explicitly.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+public class HandoffBenchmark {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    // VIRTUAL_THREAD only where supported, see main
+    @Param({"SYNCHRONOUS_QUEUE", "EXCHANGER", "ARRAY_BLOCKING_QUEUE", "LINKED_TRANSFER_QUEUE", "PARK_UNPARK", "SPIN", "COMPLETABLE_FUTURE"})
+    private Handoff handoff;
+
+    private PingPong pingPong;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.pingPong = this.handoff.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pingPong.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void roundTrip() throws Exception {
+        this.pingPong.roundTrip();
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions cli = new CommandLineOptions(args);
+        final ChainedOptionsBuilder builder = new OptionsBuilder()
+            .parent(cli)
+            .include(HandoffBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .jvmArgsAppend(
+                "-Xbatch",
+                "-XX:-TieredCompilation",
+                "-XX:+UnlockDiagnosticVMOptions"
+            );
+        if (!cli.getParameter("handoff").hasValue()) {
+            builder.param("handoff", Arrays.stream(Handoff.values()).filter(Handoff::isAvailable).map(Enum::name).toArray(String[]::new));
+        }
+
+        final Collection<RunResult> results = new Runner(builder.build()).run();
+
+        final StringBuilder header = new StringBuilder(String.format("%-22s", "handoff"));
+        for (final double percentile : PERCENTILES) {
+            header.append(String.format(" %12s", "p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)) + " ns"));
+        }
+        System.out.println(header.append(String.format(" %12s", "max ns")));
+        for (final RunResult result : results) {
+            final Statistics statistics = result.getPrimaryResult().getStatistics();
+            final StringBuilder row = new StringBuilder(String.format("%-22s", result.getParams().getParam("handoff")));
+            for (final double percentile : PERCENTILES) {
+                row.append(String.format(" %12.0f", statistics.getPercentile(percentile)));
+            }
+            System.out.println(row.append(String.format(" %12.0f", statistics.getMax())));
+        }
+    }
+}
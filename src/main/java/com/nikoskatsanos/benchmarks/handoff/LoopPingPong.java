@@ -0,0 +1,56 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+/**
+ * A {@link PingPong} whose ponger is a dedicated thread, looping over {@link #pong()} until closed
+ */
+abstract class LoopPingPong extends PingPong {
+
+    private volatile boolean running = true;
+    private Thread ponger;
+
+    /**
+     * Starts the ponger, as a platform thread unless overridden
+     */
+    @Override
+    PingPong start() {
+        this.ponger = new Thread(this::pongLoop, "ponger");
+        this.ponger.setDaemon(true);
+        this.ponger.start();
+        return this;
+    }
+
+    final void pongLoop() {
+        try {
+            while (this.running) {
+                this.pong();
+            }
+        } catch (final InterruptedException e) {
+            // closed
+        }
+    }
+
+    final void setPonger(final Thread ponger) {
+        this.ponger = ponger;
+    }
+
+    final Thread getPonger() {
+        return this.ponger;
+    }
+
+    final boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Waits for a ping and pongs, on the ponger thread. Waiting loops are to give up with an {@link InterruptedException} once closed
+     */
+    abstract void pong() throws InterruptedException;
+
+    @Override
+    public void close() {
+        this.running = false;
+        if (this.ponger != null) {
+            this.ponger.interrupt();
+        }
+    }
+}
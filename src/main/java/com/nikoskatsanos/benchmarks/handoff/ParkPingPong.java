@@ -0,0 +1,73 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A ping-pong over {@link LockSupport#park(Object)} and {@link LockSupport#unpark(Thread)}, the bare mechanism every blocking {@code java.util.concurrent} structure is built on
+ * <p>
+ *     Pings and pongs are counted in volatile fields, so that a wake-up is never lost: an unpark preceding the park it is meant for leaves a permit behind, and a spurious
+ *     wake-up goes back to parking as the count has not moved.
+ * </p>
+ * <p>
+ *     The ponger may be a virtual thread (JDK 21+, started reflectively as the project targets an older JDK), in which case parking unmounts its continuation from the carrier
+ *     thread and unparking submits it back to the carriers' scheduler.
+ * </p>
+ */
+class ParkPingPong extends LoopPingPong {
+
+    private final boolean virtual;
+
+    private volatile long pings;
+    private volatile long pongs;
+    private volatile Thread pinger;
+
+    ParkPingPong(final boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    /**
+     * @return whether virtual threads are available on this JVM
+     */
+    static boolean supportsVirtualThreads() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Override
+    PingPong start() {
+        if (!this.virtual) {
+            return super.start();
+        }
+        try {
+            this.setPonger((Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null, (Runnable) this::pongLoop));
+        } catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or later, running " + Runtime.version(), e);
+        }
+        return this;
+    }
+
+    @Override
+    void roundTrip() {
+        // JMH may run iterations on different threads, the ponger is to unpark whichever pings
+        this.pinger = Thread.currentThread();
+        final long target = this.pings + 1;
+        this.pings = target;
+        LockSupport.unpark(this.getPonger());
+        while (this.pongs != target) {
+            LockSupport.park(this);
+        }
+    }
+
+    @Override
+    void pong() throws InterruptedException {
+        final long seen = this.pongs;
+        while (this.pings == seen) {
+            if (!this.isRunning()) {
+                throw new InterruptedException();
+            }
+            LockSupport.park(this);
+        }
+        this.pongs = seen + 1;
+        LockSupport.unpark(this.pinger);
+    }
+}
@@ -0,0 +1,31 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+/**
+ * Two threads handing a message back and forth: the calling thread pings, a ponger thread answers
+ * <p>
+ *     {@link #roundTrip()} returns once the ponger has received the ping and the pong has made it back, hence times two hand-overs, each including waking up the other thread
+ *     if it was not already running. How the ponger is driven is up to the implementation, a loop of its own (see {@link LoopPingPong}) or an executor running every pong as a
+ *     task (see {@link FuturePingPong}).
+ * </p>
+ */
+abstract class PingPong implements AutoCloseable {
+
+    static final Object PING = "ping";
+    static final Object PONG = "pong";
+
+    /**
+     * Starts the ponger. Not done on construction, so that the ponger never sees a partially constructed instance
+     */
+    abstract PingPong start();
+
+    /**
+     * Pings and waits for the pong
+     */
+    abstract void roundTrip() throws Exception;
+
+    /**
+     * Stops the ponger
+     */
+    @Override
+    public abstract void close();
+}
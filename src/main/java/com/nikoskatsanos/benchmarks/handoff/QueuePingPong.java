@@ -0,0 +1,39 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TransferQueue;
+
+/**
+ * A ping-pong over two {@link BlockingQueue}s, one per direction. {@link TransferQueue}s are handed to with {@link TransferQueue#transfer(Object)}, waiting for the other
+ * side to receive the message, anything else with {@link BlockingQueue#put(Object)}
+ */
+class QueuePingPong extends LoopPingPong {
+
+    private final BlockingQueue<Object> pings;
+    private final BlockingQueue<Object> pongs;
+
+    QueuePingPong(final BlockingQueue<Object> pings, final BlockingQueue<Object> pongs) {
+        this.pings = pings;
+        this.pongs = pongs;
+    }
+
+    @Override
+    void roundTrip() throws InterruptedException {
+        send(this.pings, PING);
+        this.pongs.take();
+    }
+
+    @Override
+    void pong() throws InterruptedException {
+        this.pings.take();
+        send(this.pongs, PONG);
+    }
+
+    private static void send(final BlockingQueue<Object> queue, final Object message) throws InterruptedException {
+        if (queue instanceof TransferQueue) {
+            ((TransferQueue<Object>) queue).transfer(message);
+        } else {
+            queue.put(message);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.nikoskatsanos.benchmarks.handoff;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A ping-pong of two threads busy spinning on each other's counter, published with {@link VarHandle#setRelease(Object...)} and read with
+ * {@link VarHandle#getAcquire(Object...)}, the cheapest ordering a hand-over can get away with
+ * <p>
+ *     No thread ever sleeps, hence this is the cost of moving a cache line between two cores and back, given there is a core to spare for each. Waiters yield after
+ *     {@link #SPINS} spins, so that the two threads still make progress when sharing a core, at the cost of a scheduler timeslice per hand-over.
+ * </p>
+ */
+class SpinPingPong extends LoopPingPong {
+
+    private static final int SPINS = 1 << 12;
+
+    private static final VarHandle PINGS;
+    private static final VarHandle PONGS;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PINGS = lookup.findVarHandle(SpinPingPong.class, "pings", long.class);
+            PONGS = lookup.findVarHandle(SpinPingPong.class, "pongs", long.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private long pings;
+    private long pongs;
+
+    @Override
+    void roundTrip() {
+        final long target = this.pings + 1;
+        PINGS.setRelease(this, target);
+        int spins = 0;
+        while ((long) PONGS.getAcquire(this) != target) {
+            spins = spin(spins);
+        }
+    }
+
+    @Override
+    void pong() throws InterruptedException {
+        final long seen = this.pongs;
+        int spins = 0;
+        while ((long) PINGS.getAcquire(this) == seen) {
+            if (!this.isRunning()) {
+                throw new InterruptedException();
+            }
+            spins = spin(spins);
+        }
+        PONGS.setRelease(this, seen + 1);
+    }
+
+    private static int spin(final int spins) {
+        if (spins < SPINS) {
+            Thread.onSpinWait();
+            return spins + 1;
+        }
+        Thread.yield();
+        return spins;
+    }
+}
@@ -0,0 +1,256 @@
+package com.nikoskatsanos.benchmarks.hiccup;
+
+import com.nikoskatsanos.benchmarks.metrics.Histogram;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * A hiccup meter, in the style of <a href="https://github.com/giltene/jHiccup">jHiccup</a>
+ * <p>
+ *     A daemon thread repeatedly sleeps (or spins) for a fixed resolution and records, in a {@link Histogram}, how much later than expected it woke up. Any stall the JVM imposes
+ *     on application threads (i.e. GC pauses, safepoints, OS scheduling) shows up as a hiccup, as the meter's thread is as exposed to it as any other thread of the process.
+ *     Samples missed while stalled are back-filled, so the percentiles are corrected for coordinated omission.
+ * </p>
+ * <p>
+ *     Every reporting interval a line is appended to the interval log, holding the interval's percentiles and, when GC correlation is enabled, the GC pauses reported by JFR
+ *     ({@code jdk.GCPhasePause}) in that interval. Hiccups above the spike threshold are printed along with the GC pauses that overlap them, or flagged as non GC stalls. JFR
+ *     delivers events roughly once per second, hence spikes are correlated with a couple of seconds of delay. A percentile summary of the whole run is printed on {@link #close()}.
+ * </p>
+ * <h2>Usage</h2>
+ * <pre>
+ *     {@code
+ *      try (final HiccupMeter meter = new HiccupMeter(System.out).start()) {
+ *          // run the workload
+ *      }
+ *     }
+ * </pre>
+ * JMH benchmarks can attach the meter through {@link HiccupProfiler}
+ */
+public class HiccupMeter implements AutoCloseable {
+
+    private static final long CORRELATION_DELAY_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long GC_PAUSE_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final double NANOS_IN_MILLI = 1_000_000D;
+
+    private final long resolutionNanos;
+    private final boolean spin;
+    private final long reportingIntervalNanos;
+    private final long spikeThresholdNanos;
+    private final PrintStream log;
+    private final boolean correlateGc;
+
+    private final Histogram intervalHistogram = new Histogram();
+    private final Histogram accumulatedHistogram = new Histogram();
+
+    private final Queue<Spike> spikes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedDeque<GcPause> gcPauses = new ConcurrentLinkedDeque<>();
+    private final AtomicLong intervalGcPauses = new AtomicLong();
+    private final AtomicLong intervalGcPauseNanos = new AtomicLong();
+
+    private final long startNanos = System.nanoTime();
+    private final long startEpochNanos = toEpochNanos(Instant.now());
+
+    private volatile boolean running;
+    private Thread thread;
+    private RecordingStream recordingStream;
+
+    /**
+     * A meter sleeping for 1ms, reporting every 5 seconds, flagging hiccups above 5ms and correlating them with GC pauses
+     *
+     * @param log where the interval log is written to, or {@code null} if no interval log is needed
+     */
+    public HiccupMeter(final PrintStream log) {
+        this(TimeUnit.MILLISECONDS.toNanos(1), false, TimeUnit.SECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(5), log, true);
+    }
+
+    /**
+     * @param resolutionNanos        the interval the meter sleeps (or spins) for, between two samples
+     * @param spin                   whether to busy spin rather than park. Spinning captures smaller hiccups at the cost of a core
+     * @param reportingIntervalNanos how often a line is appended to the interval log
+     * @param spikeThresholdNanos    hiccups equal or above this are reported individually
+     * @param log                    where the interval log is written to, or {@code null} if no interval log is needed
+     * @param correlateGc            whether to stream GC pauses from JFR and correlate them with the observed hiccups
+     */
+    public HiccupMeter(final long resolutionNanos, final boolean spin, final long reportingIntervalNanos, final long spikeThresholdNanos, final PrintStream log,
+        final boolean correlateGc) {
+        this.resolutionNanos = resolutionNanos;
+        this.spin = spin;
+        this.reportingIntervalNanos = reportingIntervalNanos;
+        this.spikeThresholdNanos = spikeThresholdNanos;
+        this.log = log;
+        this.correlateGc = correlateGc;
+    }
+
+    public HiccupMeter start() {
+        if (this.correlateGc) {
+            this.recordingStream = new RecordingStream();
+            this.recordingStream.enable("jdk.GCPhasePause");
+            this.recordingStream.onEvent("jdk.GCPhasePause", this::onGcPause);
+            this.recordingStream.startAsync();
+        }
+        if (this.log != null) {
+            this.log.println(String.format("#[Hiccup meter started at %s, resolution %.3fms]", Instant.now(), this.resolutionNanos / NANOS_IN_MILLI));
+            this.log.println("#elapsedSec,intervalSec,count,p50Ms,p90Ms,p99Ms,p99.9Ms,maxMs,gcPauses,gcPauseMs");
+        }
+
+        this.running = true;
+        this.thread = new Thread(this::record, "hiccup-meter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        return this;
+    }
+
+    private void record() {
+        long intervalStart = System.nanoTime();
+        while (this.running) {
+            final long start = System.nanoTime();
+            if (this.spin) {
+                while (System.nanoTime() - start < this.resolutionNanos) {
+                    Thread.onSpinWait();
+                }
+            } else {
+                LockSupport.parkNanos(this.resolutionNanos);
+            }
+            final long end = System.nanoTime();
+            final long hiccup = Math.max(0, end - start - this.resolutionNanos);
+
+            this.intervalHistogram.recordValueWithExpectedInterval(hiccup, this.resolutionNanos);
+            if (hiccup >= this.spikeThresholdNanos && this.log != null) {
+                this.spikes.add(new Spike(this.epochNanos(end) - hiccup - this.resolutionNanos, this.epochNanos(end), hiccup));
+            }
+
+            if (end - intervalStart >= this.reportingIntervalNanos) {
+                this.reportInterval(end, end - intervalStart);
+                intervalStart = end;
+            }
+        }
+        this.reportInterval(System.nanoTime(), System.nanoTime() - intervalStart);
+    }
+
+    private void reportInterval(final long now, final long intervalNanos) {
+        this.accumulatedHistogram.add(this.intervalHistogram);
+        if (this.log != null) {
+            this.log.println(String.format("%.3f,%.3f,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%.3f",
+                (now - this.startNanos) / 1_000_000_000D,
+                intervalNanos / 1_000_000_000D,
+                this.intervalHistogram.getTotalCount(),
+                this.intervalHistogram.getValueAtPercentile(50) / NANOS_IN_MILLI,
+                this.intervalHistogram.getValueAtPercentile(90) / NANOS_IN_MILLI,
+                this.intervalHistogram.getValueAtPercentile(99) / NANOS_IN_MILLI,
+                this.intervalHistogram.getValueAtPercentile(99.9) / NANOS_IN_MILLI,
+                this.intervalHistogram.getMaxValue() / NANOS_IN_MILLI,
+                this.intervalGcPauses.getAndSet(0),
+                this.intervalGcPauseNanos.getAndSet(0) / NANOS_IN_MILLI));
+            this.correlateSpikes(this.epochNanos(now) - CORRELATION_DELAY_NANOS);
+        }
+        this.intervalHistogram.reset();
+
+        final long retainedFrom = this.epochNanos(now) - GC_PAUSE_RETENTION_NANOS;
+        for (final Iterator<GcPause> it = this.gcPauses.iterator(); it.hasNext(); ) {
+            if (it.next().endEpochNanos < retainedFrom) {
+                it.remove();
+            }
+        }
+    }
+
+    private void correlateSpikes(final long upToEpochNanos) {
+        for (Spike spike = this.spikes.peek(); spike != null && spike.endEpochNanos <= upToEpochNanos; spike = this.spikes.peek()) {
+            this.spikes.poll();
+
+            final StringBuilder builder = new StringBuilder(String.format("#[Spike %.3fms at %s", spike.hiccupNanos / NANOS_IN_MILLI, toInstant(spike.endEpochNanos)));
+            boolean overlapsGc = false;
+            for (final GcPause pause : this.gcPauses) {
+                if (pause.startEpochNanos <= spike.endEpochNanos && pause.endEpochNanos >= spike.startEpochNanos) {
+                    builder.append(String.format(", overlaps gc %d '%s' %.3fms", pause.gcId, pause.name, (pause.endEpochNanos - pause.startEpochNanos) / NANOS_IN_MILLI));
+                    overlapsGc = true;
+                }
+            }
+            if (this.correlateGc && !overlapsGc) {
+                builder.append(", no GC pause overlaps (safepoint/OS stall)");
+            }
+            this.log.println(builder.append(']'));
+        }
+    }
+
+    private void onGcPause(final RecordedEvent event) {
+        final long startEpochNanos = toEpochNanos(event.getStartTime());
+        final long durationNanos = event.getDuration().toNanos();
+        this.intervalGcPauses.incrementAndGet();
+        this.intervalGcPauseNanos.addAndGet(durationNanos);
+        this.gcPauses.add(new GcPause(event.getInt("gcId"), event.getString("name"), startEpochNanos, startEpochNanos + durationNanos));
+    }
+
+    /**
+     * @return the hiccups recorded across all completed reporting intervals. Only complete once the meter has been {@link #close() closed}
+     */
+    public Histogram getAccumulatedHistogram() {
+        return this.accumulatedHistogram;
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        if (this.thread != null) {
+            try {
+                this.thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (this.recordingStream != null) {
+            this.recordingStream.close();
+        }
+        if (this.log != null) {
+            this.correlateSpikes(Long.MAX_VALUE);
+            this.log.println("#[Hiccups in ms]");
+            this.accumulatedHistogram.outputPercentileDistribution(this.log, NANOS_IN_MILLI);
+        }
+    }
+
+    private long epochNanos(final long nanoTime) {
+        return this.startEpochNanos + (nanoTime - this.startNanos);
+    }
+
+    private static long toEpochNanos(final Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private static Instant toInstant(final long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+
+    private static class Spike {
+        private final long startEpochNanos;
+        private final long endEpochNanos;
+        private final long hiccupNanos;
+
+        Spike(final long startEpochNanos, final long endEpochNanos, final long hiccupNanos) {
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+            this.hiccupNanos = hiccupNanos;
+        }
+    }
+
+    private static class GcPause {
+        private final int gcId;
+        private final String name;
+        private final long startEpochNanos;
+        private final long endEpochNanos;
+
+        GcPause(final int gcId, final String name, final long startEpochNanos, final long endEpochNanos) {
+            this.gcId = gcId;
+            this.name = name;
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+        }
+    }
+}
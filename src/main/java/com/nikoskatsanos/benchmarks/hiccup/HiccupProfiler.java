@@ -0,0 +1,49 @@
+package com.nikoskatsanos.benchmarks.hiccup;
+
+import com.nikoskatsanos.benchmarks.metrics.Histogram;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * A JMH profiler attaching a {@link HiccupMeter} to every iteration of a benchmark, reporting the hiccups observed in the forked VM as secondary results
+ * <p>
+ *     Enabled with {@code -prof com.nikoskatsanos.benchmarks.hiccup.HiccupProfiler}, or {@code .addProfiler(HiccupProfiler.class)} on the {@code OptionsBuilder}. The meter parks
+ *     for 1ms between samples and does not stream JFR events, so it stays out of the benchmark's way.
+ * </p>
+ */
+public class HiccupProfiler implements InternalProfiler {
+
+    private static final double NANOS_IN_MILLI = 1_000_000D;
+
+    private HiccupMeter meter;
+
+    @Override
+    public String getDescription() {
+        return "JVM hiccups (stalls) observed by a thread sleeping for 1ms";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+        this.meter = new HiccupMeter(TimeUnit.MILLISECONDS.toNanos(1), false, Long.MAX_VALUE, Long.MAX_VALUE, null, false).start();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        this.meter.close();
+        final Histogram histogram = this.meter.getAccumulatedHistogram();
+        return Arrays.asList(
+            new ScalarResult("·hiccup.p50", histogram.getValueAtPercentile(50) / NANOS_IN_MILLI, "ms", AggregationPolicy.AVG),
+            new ScalarResult("·hiccup.p99", histogram.getValueAtPercentile(99) / NANOS_IN_MILLI, "ms", AggregationPolicy.AVG),
+            new ScalarResult("·hiccup.p99.9", histogram.getValueAtPercentile(99.9) / NANOS_IN_MILLI, "ms", AggregationPolicy.AVG),
+            new ScalarResult("·hiccup.max", histogram.getMaxValue() / NANOS_IN_MILLI, "ms", AggregationPolicy.MAX)
+        );
+    }
+}
@@ -0,0 +1,442 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import com.nikoskatsanos.benchmarks.launcher.JvmMatrix.Variant;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * A single entry point for all benchmark suites of the project, meant to be run unattended
+ * <h2>Usage</h2>
+ * <pre>
+ *     {@code
+ *      BenchmarkLauncher [--list] [--suite <suite>[,<suite>...]] [--profile quick|ci|full] [--results <dir>] [--jvm-args "<args>"] [--matrix <matrix>]
+ *                        [--warmup-curve <invocations>] [--first <n>] [--startup <forks>] [-- <JMH options>]
+ *     }
+ * </pre>
+ * <ul>
+ *     <li><b>--list</b> prints the suites discovered and their benchmarks</li>
+ *     <li><b>--suite</b> the suites to run, by simple class name, fully qualified class name or package (i.e. {@code codec}). All suites if omitted</li>
+ *     <li><b>--profile</b> the {@link RunProfile} to apply, {@code ci} if omitted. Iteration settings given as JMH options take precedence</li>
+ *     <li><b>--results</b> the directory the results are written to, {@code results} if omitted</li>
+ *     <li><b>--jvm-args</b> the JVM arguments appended to the benchmark forks, {@code -Xbatch -XX:-TieredCompilation} (as in the suites' own mains) if omitted. With
+ *     {@code --matrix}, {@code --warmup-curve} or {@code --startup} none if omitted, as these are about the JVM's defaults (i.e. tiered compilation) too</li>
+ *     <li><b>--matrix</b> runs the suites once per JVM configuration of a {@link JvmMatrix}, i.e. {@code "compiler=tiered,c2,c1;oops=all;gc=g1,zgc"}</li>
+ *     <li><b>--warmup-curve</b> measures the warmup instead of the steady state, see {@link WarmupCurve}: the given number of {@code SingleShotTime} iterations per fork with no
+ *     warmup iterations</li>
+ *     <li><b>--first</b> the number of first invocations a warmup curve reports the mean of, {@code 10} if omitted</li>
+ *     <li><b>--startup</b> measures the start up instead of the steady state, see {@link StartupRun}: the given number of fresh JVMs per benchmark and CDS configuration, each
+ *     timed until the benchmark's first result. JMH does not run, hence JMH options other than includes do not apply</li>
+ *     <li><b>--</b> anything after it is passed to JMH as is (i.e. {@code -- -prof gc -t 4})</li>
+ * </ul>
+ * Every launch writes to its own timestamped directory:
+ * <ul>
+ *     <li><b>results.json</b> JMH's JSON output</li>
+ *     <li><b>results.csv</b> JMH's CSV output</li>
+ *     <li><b>samples.csv</b> the score of every measurement iteration of every fork, as needed for statistical comparisons</li>
+ *     <li><b>environment.json</b> CPU model, core count, memory, JDK, GC, JVM arguments, host and commit, see {@link EnvironmentInfo}</li>
+ * </ul>
+ * A matrix launch writes the above per configuration, in a sub-directory named after it, along with a {@code matrix.csv} of the scores of all configurations. A warmup curve
+ * launch further writes a {@code warmup.csv}. Both are printed as tables too. A start up launch writes only {@code environment.json} and a {@code startup.csv} of every fork's
+ * measurements, printing their medians, along with the CDS archives it dumped.
+ */
+public class BenchmarkLauncher {
+
+    private static final List<String> DEFAULT_JVM_ARGS = Arrays.asList("-Xbatch", "-XX:-TieredCompilation");
+    private static final DateTimeFormatter DIRECTORY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SuiteRegistry registry = new SuiteRegistry();
+
+    private boolean list;
+    private final List<String> suites = new ArrayList<>();
+    private RunProfile profile = RunProfile.CI;
+    private Path resultsRoot = Paths.get("results");
+    private List<String> jvmArgs;
+    private JvmMatrix matrix;
+    private int warmupInvocations;
+    private int firstInvocations = 10;
+    private int startupForks;
+    private String[] jmhArgs = new String[0];
+
+    BenchmarkLauncher(final String... args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--list":
+                    this.list = true;
+                    break;
+                case "--suite":
+                    this.suites.addAll(suites(args, ++i));
+                    break;
+                case "--profile":
+                    this.profile = profile(args, ++i);
+                    break;
+                case "--results":
+                    this.resultsRoot = Paths.get(value(args, ++i));
+                    break;
+                case "--jvm-args":
+                    this.jvmArgs = Arrays.asList(value(args, ++i).trim().split("\\s+"));
+                    break;
+                case "--matrix":
+                    this.matrix = matrix(args, ++i);
+                    break;
+                case "--warmup-curve":
+                    this.warmupInvocations = positive(args, ++i);
+                    break;
+                case "--first":
+                    this.firstInvocations = positive(args, ++i);
+                    break;
+                case "--startup":
+                    this.startupForks = positive(args, ++i);
+                    break;
+                case "--":
+                    this.jmhArgs = Arrays.copyOfRange(args, i + 1, args.length);
+                    i = args.length;
+                    break;
+                default:
+                    throw new UsageException("Unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    private static String value(final String[] args, final int i) {
+        if (i >= args.length) {
+            throw new UsageException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private List<String> suites(final String[] args, final int i) {
+        final List<String> suites = Arrays.asList(value(args, i).split(","));
+        try {
+            this.registry.includes(suites);
+        } catch (final IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+        return suites;
+    }
+
+    private static RunProfile profile(final String[] args, final int i) {
+        final String value = value(args, i);
+        try {
+            return RunProfile.valueOf(value.toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new UsageException(args[i - 1] + " expects one of " + Arrays.toString(RunProfile.values()).toLowerCase() + ", got '" + value + "'");
+        }
+    }
+
+    private static JvmMatrix matrix(final String[] args, final int i) {
+        try {
+            return new JvmMatrix(value(args, i));
+        } catch (final IllegalArgumentException e) {
+            throw new UsageException(e.getMessage());
+        }
+    }
+
+    private static int positive(final String[] args, final int i) {
+        final String value = value(args, i);
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (final NumberFormatException e) {
+            // reported below
+        }
+        throw new UsageException(args[i - 1] + " expects a positive number, got '" + value + "'");
+    }
+
+    /**
+     * Builds the JMH options of a configuration of this launch, on top of the given JMH command line options
+     */
+    ChainedOptionsBuilder options(final CommandLineOptions cli, final Variant variant) {
+        final ChainedOptionsBuilder builder = new OptionsBuilder().parent(cli);
+        final List<String> includes = this.suites.isEmpty() && cli.getIncludes().isEmpty() ? this.registry.includes(this.registry.getSuites().keySet())
+            : this.registry.includes(this.suites);
+        includes.forEach(builder::include);
+
+        if (!cli.getForkCount().hasValue()) {
+            builder.forks(this.profile.getForks());
+        }
+        if (this.warmupInvocations > 0) {
+            // a cold JVM per fork, timing every invocation from the very first one
+            builder.mode(Mode.SingleShotTime);
+            if (!cli.getWarmupIterations().hasValue()) {
+                builder.warmupIterations(0);
+            }
+            if (!cli.getMeasurementIterations().hasValue()) {
+                builder.measurementIterations(this.warmupInvocations);
+            }
+        } else {
+            if (!cli.getWarmupIterations().hasValue()) {
+                builder.warmupIterations(this.profile.getWarmupIterations());
+            }
+            if (!cli.getWarmupTime().hasValue()) {
+                builder.warmupTime(this.profile.getWarmupTime());
+            }
+            if (!cli.getMeasurementIterations().hasValue()) {
+                builder.measurementIterations(this.profile.getMeasurementIterations());
+            }
+            if (!cli.getMeasurementTime().hasValue()) {
+                builder.measurementTime(this.profile.getMeasurementTime());
+            }
+        }
+        builder.jvmArgsAppend(this.forkJvmArgs(cli, variant).toArray(new String[0]));
+        return builder;
+    }
+
+    /**
+     * @return the JVM arguments appended to the forks, the configuration's coming last to take precedence
+     */
+    Collection<String> forkJvmArgs(final CommandLineOptions cli, final Variant variant) {
+        final List<String> defaults = this.matrix == null && this.warmupInvocations == 0 && this.startupForks == 0 ? DEFAULT_JVM_ARGS : Collections.emptyList();
+        final List<String> args = new ArrayList<>(cli.getJvmArgsAppend().orElse(this.jvmArgs == null ? defaults : this.jvmArgs));
+        args.addAll(variant.getJvmArgs());
+        return args;
+    }
+
+    /**
+     * @return every JVM argument the JMH forks are started with: JMH's prepended ones, the launcher's own (inherited by the forks unless JMH is given {@code -jvmArgs}) and
+     * the appended ones
+     */
+    private Collection<String> jmhForkJvmArgs(final CommandLineOptions cli, final Variant variant) {
+        final List<String> args = new ArrayList<>(cli.getJvmArgsPrepend().orElse(Collections.emptyList()));
+        args.addAll(cli.getJvmArgs().orElse(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        args.addAll(this.forkJvmArgs(cli, variant));
+        return args;
+    }
+
+    void run() throws CommandLineOptionException, RunnerException, IOException, InterruptedException {
+        if (this.list) {
+            for (final Entry<String, Collection<String>> suite : this.registry.getSuites().entrySet()) {
+                System.out.println(suite.getKey());
+                suite.getValue().forEach(benchmark -> System.out.println("    " + benchmark.substring(suite.getKey().length() + 1)));
+            }
+            return;
+        }
+
+        final CommandLineOptions cli = new CommandLineOptions(this.jmhArgs);
+        final Path launchDir = this.resultsRoot.resolve(LocalDateTime.now().format(DIRECTORY_FORMAT));
+        if (this.matrix != null) {
+            this.matrix.getUnavailable().forEach(option -> System.out.println("Skipping " + option.getAxis().name().toLowerCase() + "=" + option
+                + ", not supported by the JVM at " + System.getProperty("java.home") + " (" + Runtime.version() + ")"));
+        }
+
+        if (this.startupForks > 0) {
+            this.startup(cli, launchDir);
+            return;
+        }
+
+        final Map<Variant, Collection<RunResult>> results = new LinkedHashMap<>();
+        for (final Variant variant : this.matrix == null ? JvmMatrix.none() : this.matrix.getVariants()) {
+            final Path resultsDir = this.matrix == null ? launchDir : launchDir.resolve(variant.getName().replace('=', '-').replace(';', '_'));
+            results.put(variant, this.launch(cli, variant, resultsDir));
+        }
+
+        if (this.matrix != null) {
+            writeMatrix(results, launchDir.resolve("matrix.csv"));
+        }
+        if (this.warmupInvocations > 0) {
+            this.writeWarmupCurves(results, launchDir.resolve("warmup.csv"));
+        }
+        System.out.println("Results written to " + launchDir.toAbsolutePath());
+    }
+
+    private Collection<RunResult> launch(final CommandLineOptions cli, final Variant variant, final Path resultsDir) throws IOException, RunnerException {
+        Files.createDirectories(resultsDir);
+
+        final EnvironmentInfo environment = EnvironmentInfo.capture(this.jmhForkJvmArgs(cli, variant));
+        Files.write(resultsDir.resolve("environment.json"), environment.toJson().getBytes(StandardCharsets.UTF_8));
+
+        final Collection<RunResult> results = new Runner(this.options(cli, variant)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultsDir.resolve("results.json").toString())
+            .build()).run();
+
+        // the forks' actual arguments, which include those of any @Fork annotation too
+        final Set<String> forkGcs = new LinkedHashSet<>();
+        results.forEach(result -> forkGcs.add(EnvironmentInfo.gc(result.getParams().getJvmArgs())));
+        if (!forkGcs.isEmpty()) {
+            environment.put("forkGc", String.join(",", forkGcs));
+            Files.write(resultsDir.resolve("environment.json"), environment.toJson().getBytes(StandardCharsets.UTF_8));
+        }
+
+        ResultFormatFactory.getInstance(ResultFormatType.CSV, resultsDir.resolve("results.csv").toString()).writeOut(results);
+        writeSamples(results, resultsDir.resolve("samples.csv"));
+        return results;
+    }
+
+    private void startup(final CommandLineOptions cli, final Path launchDir) throws IOException, InterruptedException {
+        Files.createDirectories(launchDir);
+        final StartupRun startup = new StartupRun(this.startupBenchmarks(cli), this.startupForks, launchDir.resolve("cds"));
+        for (final Variant variant : this.matrix == null ? JvmMatrix.none() : this.matrix.getVariants()) {
+            final Collection<String> jvmArgs = this.forkJvmArgs(cli, variant);
+            if (this.matrix == null) {
+                Files.write(launchDir.resolve("environment.json"), EnvironmentInfo.capture(jvmArgs).toJson().getBytes(StandardCharsets.UTF_8));
+            }
+            startup.measure(variant, new ArrayList<>(jvmArgs));
+        }
+        startup.write(launchDir.resolve("startup.csv"));
+        System.out.println("Results written to " + launchDir.toAbsolutePath());
+    }
+
+    /**
+     * @return the benchmarks selected by the suites or, if none given, by JMH's includes, as the fully qualified names of their methods
+     */
+    private List<String> startupBenchmarks(final CommandLineOptions cli) {
+        final List<String> includes = !this.suites.isEmpty() ? this.registry.includes(this.suites)
+            : cli.getIncludes().isEmpty() ? this.registry.includes(this.registry.getSuites().keySet()) : cli.getIncludes();
+        final List<String> benchmarks = new ArrayList<>();
+        for (final Collection<String> suite : this.registry.getSuites().values()) {
+            for (final String benchmark : suite) {
+                if (includes.stream().anyMatch(include -> Pattern.compile(include).matcher(benchmark).find())) {
+                    benchmarks.add(benchmark);
+                }
+            }
+        }
+        if (benchmarks.isEmpty()) {
+            throw new IllegalArgumentException("No benchmark matches " + includes);
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Writes the score of every benchmark under every configuration, printing them as a table of a row per benchmark and a column per configuration
+     */
+    static void writeMatrix(final Map<Variant, Collection<RunResult>> results, final Path file) throws IOException {
+        final Map<String, Map<Variant, String>> table = new LinkedHashMap<>();
+        try (final PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            out.println("benchmark,mode,params,variant,score,error,unit");
+            for (final Entry<Variant, Collection<RunResult>> variant : results.entrySet()) {
+                for (final RunResult result : variant.getValue()) {
+                    final BenchmarkParams params = result.getParams();
+                    final Result<?> primary = result.getPrimaryResult();
+                    out.println(String.join(",", params.getBenchmark(), params.getMode().shortLabel(), paramsColumn(params), variant.getKey().getName(),
+                        String.valueOf(primary.getScore()), String.valueOf(primary.getScoreError()), primary.getScoreUnit()));
+                    table.computeIfAbsent(rowLabel(params), row -> new LinkedHashMap<>())
+                        .put(variant.getKey(), String.format("%.3f ± %.3f %s", primary.getScore(), primary.getScoreError(), primary.getScoreUnit()));
+                }
+            }
+        }
+
+        final StringBuilder header = new StringBuilder(String.format("%-60s", "Benchmark"));
+        results.keySet().forEach(variant -> header.append(String.format(" %30s", variant.getName())));
+        System.out.println(header);
+        for (final Entry<String, Map<Variant, String>> row : table.entrySet()) {
+            final StringBuilder line = new StringBuilder(String.format("%-60s", row.getKey()));
+            results.keySet().forEach(variant -> line.append(String.format(" %30s", row.getValue().getOrDefault(variant, "-"))));
+            System.out.println(line);
+        }
+    }
+
+    private void writeWarmupCurves(final Map<Variant, Collection<RunResult>> results, final Path file) throws IOException {
+        System.out.println(String.format("%-60s %-30s %14s %14s %14s %12s %16s %8s", "Benchmark", "Configuration", "first", "first " + this.firstInvocations, "steady state",
+            "iterations", "time to steady", "unit"));
+        try (final PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            out.println("benchmark,params,variant,first,firstN,n,steadyState,iterationsToSteadyState,timeToSteadyState,unit");
+            for (final Entry<Variant, Collection<RunResult>> variant : results.entrySet()) {
+                for (final RunResult result : variant.getValue()) {
+                    final BenchmarkParams params = result.getParams();
+                    final WarmupCurve curve = WarmupCurve.of(result, this.firstInvocations);
+                    out.println(String.join(",", params.getBenchmark(), paramsColumn(params), variant.getKey().getName(), String.valueOf(curve.getFirst()),
+                        String.valueOf(curve.getFirstN()), String.valueOf(this.firstInvocations), String.valueOf(curve.getSteadyState()),
+                        String.valueOf(curve.getIterationsToSteadyState()), String.valueOf(curve.getTimeToSteadyState()), curve.getUnit()));
+                    final boolean reached = curve.getIterationsToSteadyState() != WarmupCurve.NOT_REACHED;
+                    System.out.println(String.format("%-60s %-30s %14.3f %14.3f %14.3f %12s %16s %8s", rowLabel(params), variant.getKey().getName(), curve.getFirst(),
+                        curve.getFirstN(), curve.getSteadyState(), reached ? String.valueOf(curve.getIterationsToSteadyState()) : "not reached",
+                        reached ? String.format("%.3f", curve.getTimeToSteadyState()) : "-", curve.getUnit()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return i.e. {@code codec.AsciiCodecBenchmark.parseLongJdk [avgt] (size=10)}
+     */
+    private static String rowLabel(final BenchmarkParams params) {
+        final String benchmark = params.getBenchmark();
+        final String label = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1) + " [" + params.getMode().shortLabel() + "]";
+        return params.getParamsKeys().isEmpty() ? label : label + " (" + paramsColumn(params) + ")";
+    }
+
+    static void writeSamples(final Collection<RunResult> results, final Path file) throws IOException {
+        try (final PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            out.println("benchmark,mode,params,fork,iteration,score,unit");
+            for (final RunResult result : results) {
+                final BenchmarkParams params = result.getParams();
+                final String paramsColumn = paramsColumn(params);
+                int fork = 0;
+                for (final BenchmarkResult forkResult : result.getBenchmarkResults()) {
+                    int iteration = 0;
+                    for (final IterationResult iterationResult : forkResult.getIterationResults()) {
+                        out.println(String.join(",", params.getBenchmark(), params.getMode().shortLabel(), paramsColumn, String.valueOf(fork), String.valueOf(iteration++),
+                            String.valueOf(iterationResult.getPrimaryResult().getScore()), iterationResult.getScoreUnit()));
+                    }
+                    fork++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the benchmark's parameters as {@code key=value} pairs separated by {@code ;}, as the CSV column holding them
+     */
+    static String paramsColumn(final BenchmarkParams params) {
+        final List<String> pairs = new ArrayList<>();
+        for (final String key : params.getParamsKeys()) {
+            pairs.add(key + "=" + params.getParam(key));
+        }
+        return String.join(";", pairs);
+    }
+
+    /**
+     * Thrown on arguments the launcher cannot make sense of, reported along with the usage
+     */
+    static class UsageException extends RuntimeException {
+
+        UsageException(final String message) {
+            super(message);
+        }
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException, IOException, InterruptedException {
+        try {
+            new BenchmarkLauncher(args).run();
+        } catch (final UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BenchmarkLauncher [--list] [--suite <suite>[,<suite>...]] [--profile quick|ci|full] [--results <dir>] [--jvm-args \"<args>\"] "
+                + "[--matrix <axis>=<value>[,<value>...][;<axis>=...]] [--warmup-curve <invocations>] [--first <n>] [--startup <forks>] [-- <JMH options>]");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The environment a launch ran in, captured along with the results so that numbers from different machines, JDKs or JVM flags are never compared unknowingly
+ */
+public class EnvironmentInfo {
+
+    private static final Pattern GC_FLAG = Pattern.compile("-XX:\\+Use(\\w+)GC");
+    private static final Pattern JSON_PROPERTY = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\":\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    private EnvironmentInfo() {
+    }
+
+    /**
+     * @param forkJvmArgs the JVM arguments the benchmark forks are started with
+     */
+    public static EnvironmentInfo capture(final Collection<String> forkJvmArgs) {
+        final EnvironmentInfo info = new EnvironmentInfo();
+        info.properties.put("timestamp", Instant.now().toString());
+        info.properties.put("host", hostName());
+        info.properties.put("commit", gitCommit());
+        info.properties.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        info.properties.put("arch", System.getProperty("os.arch"));
+        info.properties.put("cpuModel", cpuModel());
+        info.properties.put("cpuCores", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        info.properties.put("memoryTotalBytes", String.valueOf(((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getTotalMemorySize()));
+        info.properties.put("jdk", System.getProperty("java.vendor") + " " + System.getProperty("java.version"));
+        info.properties.put("vm", System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+        info.properties.put("forkGc", gc(forkJvmArgs));
+        info.properties.put("forkJvmArgs", String.join(" ", forkJvmArgs));
+        return info;
+    }
+
+    /**
+     * @return the GC a JVM started with the given arguments runs, i.e. {@code G1} for {@code -XX:+UseG1GC}. Without a GC flag, the JVM picks one on its own, the same as the
+     * launcher's as long as the launcher was not given a GC flag either, hence that one, otherwise {@code default}
+     */
+    public static String gc(final Collection<String> jvmArgs) {
+        final String flagged = lastGcFlag(jvmArgs);
+        if (flagged != null) {
+            return flagged;
+        }
+        if (lastGcFlag(ManagementFactory.getRuntimeMXBean().getInputArguments()) != null) {
+            return "default";
+        }
+        return "default (" + ManagementFactory.getGarbageCollectorMXBeans().stream().map(GarbageCollectorMXBean::getName).collect(Collectors.joining(",")) + ")";
+    }
+
+    private static String lastGcFlag(final Collection<String> jvmArgs) {
+        String gc = null;
+        for (final String arg : jvmArgs) {
+            final Matcher matcher = GC_FLAG.matcher(arg);
+            if (matcher.matches()) {
+                gc = matcher.group(1);
+            }
+        }
+        return gc;
+    }
+
+    /**
+     * Reads back the output of {@link #toJson()}
+     */
+    public static EnvironmentInfo fromJson(final String json) {
+        final EnvironmentInfo info = new EnvironmentInfo();
+        final Matcher matcher = JSON_PROPERTY.matcher(json);
+        while (matcher.find()) {
+            info.properties.put(unescape(matcher.group(1)), unescape(matcher.group(2)));
+        }
+        return info;
+    }
+
+    public String get(final String key) {
+        return this.properties.get(key);
+    }
+
+    void put(final String key, final String value) {
+        this.properties.put(key, value);
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(this.properties);
+    }
+
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder("{\n");
+        int i = 0;
+        for (final Entry<String, String> entry : this.properties.entrySet()) {
+            builder.append("  \"").append(escape(entry.getKey())).append("\": \"").append(escape(entry.getValue())).append('"');
+            builder.append(++i < this.properties.size() ? ",\n" : "\n");
+        }
+        return builder.append("}\n").toString();
+    }
+
+    private static String escape(final String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String unescape(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                final char escaped = value.charAt(++i);
+                builder.append(escaped == 'n' ? '\n' : escaped);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (final IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static String cpuModel() {
+        final Path cpuInfo = Paths.get("/proc/cpuinfo");
+        if (Files.isReadable(cpuInfo)) {
+            try {
+                for (final String line : Files.readAllLines(cpuInfo)) {
+                    if (line.startsWith("model name")) {
+                        return line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+            } catch (final IOException e) {
+                // fall through to the architecture
+            }
+        }
+        return System.getProperty("os.arch");
+    }
+
+    private static String gitCommit() {
+        try {
+            final Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                final String commit = reader.readLine();
+                return process.waitFor() == 0 && commit != null ? commit.trim() : "unknown";
+            }
+        } catch (final IOException e) {
+            return "unknown";
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.module.ModuleFinder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+
+/**
+ * The JVM configurations a suite is run across, as the cartesian product of the values chosen per {@link Axis}
+ * <p>
+ *     Given as {@code <axis>=<value>[,<value>...][;<axis>=...]}, i.e. {@code compiler=tiered,c2;gc=g1,zgc} runs four configurations. {@code all} selects every value of an
+ *     axis. Values the JVM does not support (i.e. Graal on a JDK without it, Shenandoah on a build without it) are skipped. Support is checked against the launcher's JVM,
+ *     which is the JVM the forks run on unless JMH's {@code -jvm} is given.
+ * </p>
+ */
+public class JvmMatrix {
+
+    public enum Axis {
+        COMPILER, OOPS, GC
+    }
+
+    public enum Option {
+
+        TIERED(Axis.COMPILER, null),
+        C2(Axis.COMPILER, null, "-XX:-TieredCompilation"),
+        C1(Axis.COMPILER, null, "-XX:TieredStopAtLevel=1"),
+        GRAAL(Axis.COMPILER, "UseJVMCICompiler", "-XX:+UnlockExperimentalVMOptions", "-XX:+EnableJVMCI", "-XX:+UseJVMCICompiler"),
+        COMPRESSED(Axis.OOPS, null, "-XX:+UseCompressedOops"),
+        UNCOMPRESSED(Axis.OOPS, null, "-XX:-UseCompressedOops"),
+        G1(Axis.GC, null, "-XX:+UseG1GC"),
+        PARALLEL(Axis.GC, null, "-XX:+UseParallelGC"),
+        SERIAL(Axis.GC, null, "-XX:+UseSerialGC"),
+        ZGC(Axis.GC, "UseZGC", "-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC"),
+        SHENANDOAH(Axis.GC, "UseShenandoahGC", "-XX:+UnlockExperimentalVMOptions", "-XX:+UseShenandoahGC");
+
+        private final Axis axis;
+        private final String requiredFlag;
+        private final List<String> jvmArgs;
+
+        Option(final Axis axis, final String requiredFlag, final String... jvmArgs) {
+            this.axis = axis;
+            this.requiredFlag = requiredFlag;
+            this.jvmArgs = Arrays.asList(jvmArgs);
+        }
+
+        public Axis getAxis() {
+            return this.axis;
+        }
+
+        public List<String> getJvmArgs() {
+            return this.jvmArgs;
+        }
+
+        /**
+         * @return whether the JVM knows the flag the option relies on. Graal further needs its compiler module in the JDK's image, which JDKs from 17 on no longer ship. The
+         * module is looked up among the system modules rather than in the boot layer, which does not resolve it for an application on the classpath
+         */
+        public boolean isAvailable() {
+            if (this.requiredFlag == null) {
+                return true;
+            }
+            try {
+                ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption(this.requiredFlag);
+            } catch (final IllegalArgumentException e) {
+                return false;
+            }
+            return this != GRAAL || ModuleFinder.ofSystem().find("jdk.internal.vm.compiler").isPresent();
+        }
+
+        @Override
+        public String toString() {
+            return this.name().toLowerCase();
+        }
+    }
+
+    /**
+     * A single JVM configuration of the matrix
+     */
+    public static class Variant {
+
+        private final List<Option> options;
+
+        Variant(final List<Option> options) {
+            this.options = options;
+        }
+
+        /**
+         * @return i.e. {@code compiler=c2;gc=zgc}, as the params of the CSVs, {@code default} for the JVM's defaults
+         */
+        public String getName() {
+            return this.options.isEmpty() ? "default"
+                : this.options.stream().map(option -> option.getAxis().name().toLowerCase() + "=" + option).collect(Collectors.joining(";"));
+        }
+
+        public List<String> getJvmArgs() {
+            return this.options.stream().flatMap(option -> option.getJvmArgs().stream()).collect(Collectors.toList());
+        }
+
+        @Override
+        public String toString() {
+            return this.getName();
+        }
+    }
+
+    private final List<Variant> variants = new ArrayList<>();
+    private final List<Option> unavailable = new ArrayList<>();
+
+    /**
+     * @throws IllegalArgumentException if the spec names an unknown axis or value, or no value of an axis is available
+     */
+    public JvmMatrix(final String spec) {
+        final Map<Axis, List<Option>> axes = new LinkedHashMap<>();
+        for (final String axisSpec : spec.split(";")) {
+            final String[] keyValues = axisSpec.split("=", 2);
+            if (keyValues.length != 2) {
+                throw new IllegalArgumentException("Expected <axis>=<value>[,<value>...], got '" + axisSpec + "'");
+            }
+            final Axis axis = parse(Axis.class, keyValues[0]);
+            final List<Option> options = new ArrayList<>();
+            for (final String value : keyValues[1].split(",")) {
+                if ("all".equalsIgnoreCase(value.trim())) {
+                    Arrays.stream(Option.values()).filter(option -> option.getAxis() == axis).forEach(options::add);
+                    continue;
+                }
+                final Option option = parse(Option.class, value);
+                if (option.getAxis() != axis) {
+                    throw new IllegalArgumentException("'" + option + "' is not a value of " + axis.name().toLowerCase());
+                }
+                options.add(option);
+            }
+            options.stream().filter(option -> !option.isAvailable()).forEach(this.unavailable::add);
+            options.removeIf(option -> !option.isAvailable());
+            if (options.isEmpty()) {
+                throw new IllegalArgumentException("None of the values of " + axis.name().toLowerCase() + " is available on this JVM");
+            }
+            axes.put(axis, options);
+        }
+
+        List<List<Option>> product = Collections.singletonList(Collections.emptyList());
+        for (final Entry<Axis, List<Option>> axis : axes.entrySet()) {
+            final List<List<Option>> next = new ArrayList<>();
+            for (final List<Option> prefix : product) {
+                for (final Option option : axis.getValue()) {
+                    final List<Option> combination = new ArrayList<>(prefix);
+                    combination.add(option);
+                    next.add(combination);
+                }
+            }
+            product = next;
+        }
+        product.forEach(options -> this.variants.add(new Variant(options)));
+    }
+
+    /**
+     * @return the matrix of a single variant, running with the JVM's defaults
+     */
+    public static List<Variant> none() {
+        return Collections.singletonList(new Variant(Collections.emptyList()));
+    }
+
+    public List<Variant> getVariants() {
+        return this.variants;
+    }
+
+    /**
+     * @return the values requested but skipped, as the JVM does not support them
+     */
+    public List<Option> getUnavailable() {
+        return this.unavailable;
+    }
+
+    private static <E extends Enum<E>> E parse(final Class<E> type, final String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase() + " '" + value.trim() + "', expected one of "
+                + Arrays.stream(type.getEnumConstants()).map(constant -> constant.name().toLowerCase()).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Iteration settings applied to every suite a launch includes. Settings given explicitly as JMH options take precedence
+ */
+public enum RunProfile {
+
+    /**
+     * Smoke testing that every suite runs, numbers are indicative only
+     */
+    QUICK(1, 1, TimeValue.seconds(1), 2, TimeValue.seconds(1)),
+    /**
+     * Short enough to run on every change, long enough to catch gross regressions. Enough iterations for {@code RunComparison} to compare their confidence intervals
+     */
+    CI(1, 3, TimeValue.seconds(2), 10, TimeValue.seconds(1)),
+    /**
+     * Publishable numbers, multiple forks to account for run to run variance
+     */
+    FULL(3, 5, TimeValue.seconds(10), 10, TimeValue.seconds(10));
+
+    private final int forks;
+    private final int warmupIterations;
+    private final TimeValue warmupTime;
+    private final int measurementIterations;
+    private final TimeValue measurementTime;
+
+    RunProfile(final int forks, final int warmupIterations, final TimeValue warmupTime, final int measurementIterations, final TimeValue measurementTime) {
+        this.forks = forks;
+        this.warmupIterations = warmupIterations;
+        this.warmupTime = warmupTime;
+        this.measurementIterations = measurementIterations;
+        this.measurementTime = measurementTime;
+    }
+
+    public int getForks() {
+        return this.forks;
+    }
+
+    public int getWarmupIterations() {
+        return this.warmupIterations;
+    }
+
+    public TimeValue getWarmupTime() {
+        return this.warmupTime;
+    }
+
+    public int getMeasurementIterations() {
+        return this.measurementIterations;
+    }
+
+    public TimeValue getMeasurementTime() {
+        return this.measurementTime;
+    }
+}
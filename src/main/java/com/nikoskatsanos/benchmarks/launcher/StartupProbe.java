@@ -0,0 +1,168 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs a benchmark's workload in a fresh JVM, with no JMH harness, and reports when its first result is in. Run by {@link StartupRun}, one JVM per measurement
+ * <h2>Usage</h2>
+ * <pre>
+ *     {@code
+ *      StartupProbe <benchmark> [<train millis>]
+ *     }
+ * </pre>
+ * The benchmark is given by its fully qualified method name, i.e. {@code com.nikoskatsanos.benchmarks.codec.AsciiCodecBenchmark.parseLongJdk}. Its {@code @State}
+ * objects are created and set up as JMH would, every {@code @Param} taking its first value, then the benchmark method is invoked once and {@link #MARKER} printed, followed
+ * by:
+ * <ul>
+ *     <li><b>main</b> the nanos from the probe's {@code main} to the first result, i.e. the workload's own start up</li>
+ *     <li><b>first</b> the nanos of the first invocation alone</li>
+ * </ul>
+ * The marker is printed with as little machinery as possible, so that whatever is logged before it (i.e. {@code -Xlog:class+load}, {@code -XX:+PrintCompilation}) happened
+ * before the first result. Given train millis, the workload keeps being invoked for that long before exiting, i.e. for a CDS archive dumped at exit to hold the classes of the
+ * steady state too. Trial tear downs are not run, the JVM exiting right after.
+ */
+public class StartupProbe {
+
+    public static final String MARKER = "startup-probe:";
+
+    private static final String BLACKHOLE_CHALLENGE = "Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.";
+
+    private final Map<Class<?>, Object> states = new HashMap<>();
+    private final Blackhole blackhole = new Blackhole(BLACKHOLE_CHALLENGE);
+
+    private final Object target;
+    private final Method benchmark;
+    private final Object[] arguments;
+
+    StartupProbe(final String benchmark) throws ReflectiveOperationException {
+        final int split = benchmark.lastIndexOf('.');
+        final Class<?> type = Class.forName(benchmark.substring(0, split));
+        this.benchmark = findBenchmark(type, benchmark.substring(split + 1));
+        this.target = this.state(type);
+        this.arguments = this.arguments(this.benchmark);
+    }
+
+    private static Method findBenchmark(final Class<?> type, final String name) {
+        for (final Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.isAnnotationPresent(Benchmark.class)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("No @Benchmark method " + name + " in " + type.getName());
+    }
+
+    Object invoke() throws ReflectiveOperationException {
+        return this.benchmark.invoke(this.target, this.arguments);
+    }
+
+    private Object[] arguments(final Method method) throws ReflectiveOperationException {
+        final Class<?>[] types = method.getParameterTypes();
+        final Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == Blackhole.class) {
+                arguments[i] = this.blackhole;
+            } else if (types[i].isAnnotationPresent(State.class)) {
+                arguments[i] = this.state(types[i]);
+            } else {
+                throw new IllegalArgumentException("Cannot provide a " + types[i].getName() + " to " + method);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * @return the single instance of a state class, its parameters set and set up (trial, then iteration, then invocation level) as JMH would before the first invocation
+     */
+    private Object state(final Class<?> type) throws ReflectiveOperationException {
+        final Object existing = this.states.get(type);
+        if (existing != null) {
+            return existing;
+        }
+        final Object state = type.getDeclaredConstructor().newInstance();
+        this.states.put(type, state);
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Param.class)) {
+                    field.setAccessible(true);
+                    field.set(state, firstValue(field));
+                }
+            }
+        }
+        for (final Level level : Level.values()) {
+            for (final Method method : type.getMethods()) {
+                final Setup setup = method.getAnnotation(Setup.class);
+                if (setup != null && setup.value() == level) {
+                    method.invoke(state, this.arguments(method));
+                }
+            }
+        }
+        return state;
+    }
+
+    private static Object firstValue(final Field field) {
+        final String[] values = field.getAnnotation(Param.class).value();
+        final Class<?> type = field.getType();
+        if (values.length == 0) {
+            if (type.isEnum()) {
+                return type.getEnumConstants()[0];
+            }
+            throw new IllegalArgumentException("No value for @Param " + field);
+        }
+        final String value = values[0];
+        if (type == String.class) {
+            return value;
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(value);
+        } else if (type == long.class || type == Long.class) {
+            return Long.valueOf(value);
+        } else if (type == short.class || type == Short.class) {
+            return Short.valueOf(value);
+        } else if (type == byte.class || type == Byte.class) {
+            return Byte.valueOf(value);
+        } else if (type == double.class || type == Double.class) {
+            return Double.valueOf(value);
+        } else if (type == float.class || type == Float.class) {
+            return Float.valueOf(value);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value);
+        } else if (type == char.class || type == Character.class) {
+            return value.charAt(0);
+        } else if (type.isEnum()) {
+            for (final Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(value)) {
+                    return constant;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Cannot convert '" + value + "' for @Param " + field);
+    }
+
+    public static void main(final String... args) throws Exception {
+        final long start = System.nanoTime();
+        final StartupProbe probe = new StartupProbe(args[0]);
+        final long invocation = System.nanoTime();
+        probe.blackhole.consume(probe.invoke());
+        final long end = System.nanoTime();
+
+        // no String.format nor string concatenation, either would load classes of its own before the marker
+        System.out.println(new StringBuilder(MARKER).append(" main=").append(end - start).append(" first=").append(end - invocation));
+
+        if (args.length > 1) {
+            final long deadline = end + Long.parseLong(args[1]) * 1_000_000L;
+            while (System.nanoTime() < deadline) {
+                probe.blackhole.consume(probe.invoke());
+            }
+        }
+        // benchmarks may leave non-daemon threads behind, which would keep the JVM from exiting
+        System.exit(0);
+    }
+}
@@ -0,0 +1,301 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import com.nikoskatsanos.benchmarks.launcher.JvmMatrix.Variant;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures how fast benchmarks' workloads start: every measurement is a fresh JVM running a {@link StartupProbe}, timed from launching the process until the workload's first
+ * result is in, under each {@link Cds} configuration
+ * <p>
+ *     Along with the time, the classes loaded (and how many of them came from a CDS archive, as logged by {@code -Xlog:class+load}) and the methods compiled (as logged by
+ *     {@code -XX:+PrintCompilation}) before the first result are counted. Archives are dumped per benchmark and configuration, by a JVM running the same workload with
+ *     {@code -XX:ArchiveClassesAtExit}. CDS only archives classes loaded from jars, hence directories on the classpath (i.e. {@code target/classes}) are packed into a jar
+ *     first, the measurements of every configuration using the same classpath.
+ * </p>
+ */
+class StartupRun {
+
+    /**
+     * The class data sharing configurations compared
+     */
+    enum Cds {
+        /**
+         * No archive at all, every class loaded and verified from its jar or module
+         */
+        NONE,
+        /**
+         * The JDK's own archive of its classes, as a JVM starts unless told otherwise
+         */
+        DEFAULT,
+        /**
+         * A dynamic archive of the classes the first invocation loaded, on top of the JDK's
+         */
+        DYNAMIC,
+        /**
+         * A dynamic archive of the classes the workload loaded after being invoked for {@link #TRAIN_MILLIS}, hence of its steady state too
+         */
+        PREWARMED;
+
+        @Override
+        public String toString() {
+            return this.name().toLowerCase();
+        }
+    }
+
+    static final long TRAIN_MILLIS = 2_000L;
+
+    private static final Pattern COMPILATION = Pattern.compile("^\\s*\\d+\\s+\\d+\\s");
+
+    private final List<String> benchmarks;
+    private final int forks;
+    private final Path dir;
+    private final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    private final List<Sample> samples = new ArrayList<>();
+    private String classpath;
+
+    /**
+     * @param benchmarks the fully qualified benchmark methods to measure
+     * @param forks the JVMs launched per benchmark and configuration
+     * @param dir the directory holding the archives and the packed classpath
+     */
+    StartupRun(final Collection<String> benchmarks, final int forks, final Path dir) {
+        this.benchmarks = new ArrayList<>(benchmarks);
+        this.forks = forks;
+        this.dir = dir;
+    }
+
+    /**
+     * @return whether the JVM can dump dynamic CDS archives (JDK 13+). Checked against the launcher's JVM, which is the JVM the probes run on
+     */
+    static boolean supportsDynamicArchives() {
+        try {
+            ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption("ArchiveClassesAtExit");
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Measures every benchmark under every CDS configuration, appending the given JVM arguments
+     */
+    void measure(final Variant variant, final List<String> jvmArgs) throws IOException, InterruptedException {
+        if (this.classpath == null) {
+            this.classpath = this.packClasspath();
+        }
+        final boolean dynamic = supportsDynamicArchives();
+        if (!dynamic) {
+            System.out.println("Skipping " + Cds.DYNAMIC + " and " + Cds.PREWARMED + " CDS, dynamic archives are not supported by this JVM");
+        }
+        final Path archives = Files.createDirectories(this.dir.resolve(variant.getName().replace('=', '-').replace(';', '_')));
+        for (final String benchmark : this.benchmarks) {
+            for (final Cds cds : Cds.values()) {
+                if (!dynamic && (cds == Cds.DYNAMIC || cds == Cds.PREWARMED)) {
+                    continue;
+                }
+                final List<String> cdsArgs = this.cdsArgs(benchmark, cds, archives, jvmArgs);
+                if (cdsArgs == null) {
+                    continue;
+                }
+                for (int fork = 0; fork < this.forks; fork++) {
+                    final List<String> args = new ArrayList<>(jvmArgs);
+                    args.addAll(cdsArgs);
+                    args.add("-Xlog:class+load=info");
+                    args.add("-XX:+PrintCompilation");
+                    final Sample sample = this.probe(benchmark, variant, cds, fork, args);
+                    if (sample == null) {
+                        break;
+                    }
+                    this.samples.add(sample);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the arguments selecting the configuration's archive, dumping it first if needed, or {@code null} if it could not be dumped
+     */
+    private List<String> cdsArgs(final String benchmark, final Cds cds, final Path archives, final List<String> jvmArgs) throws IOException, InterruptedException {
+        switch (cds) {
+            case NONE:
+                return Collections.singletonList("-Xshare:off");
+            case DEFAULT:
+                return Collections.emptyList();
+            default:
+                final Path archive = archives.resolve(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1) + "-" + cds + ".jsa");
+                final List<String> args = new ArrayList<>(jvmArgs);
+                args.add("-XX:ArchiveClassesAtExit=" + archive);
+                final List<String> output = new ArrayList<>();
+                final Process process = this.start(args, benchmark, cds == Cds.PREWARMED ? String.valueOf(TRAIN_MILLIS) : null);
+                try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    reader.lines().forEach(output::add);
+                }
+                if (process.waitFor() != 0 || !Files.exists(archive)) {
+                    System.out.println("Skipping " + cds + " CDS of " + benchmark + ", dumping its archive failed:");
+                    output.stream().skip(Math.max(0, output.size() - 10)).forEach(line -> System.out.println("    " + line));
+                    return null;
+                }
+                return Arrays.asList("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+        }
+    }
+
+    private Sample probe(final String benchmark, final Variant variant, final Cds cds, final int fork, final List<String> args) throws IOException, InterruptedException {
+        final Sample sample = new Sample(benchmark, variant.getName(), cds, fork);
+        final List<String> unrecognised = new ArrayList<>();
+        final long start = System.nanoTime();
+        final Process process = this.start(args, benchmark, null);
+        boolean marked = false;
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (marked) {
+                    continue;
+                }
+                if (line.startsWith(StartupProbe.MARKER)) {
+                    sample.wallNanos = System.nanoTime() - start;
+                    for (final String token : line.substring(StartupProbe.MARKER.length()).trim().split(" ")) {
+                        final String[] pair = token.split("=");
+                        if ("main".equals(pair[0])) {
+                            sample.mainNanos = Long.parseLong(pair[1]);
+                        } else if ("first".equals(pair[0])) {
+                            sample.firstNanos = Long.parseLong(pair[1]);
+                        }
+                    }
+                    marked = true;
+                } else if (line.contains("[class,load]")) {
+                    sample.classes++;
+                    if (line.contains("shared objects file")) {
+                        sample.archivedClasses++;
+                    }
+                } else if (COMPILATION.matcher(line).find()) {
+                    sample.compilations++;
+                } else {
+                    unrecognised.add(line);
+                }
+            }
+        }
+        process.waitFor();
+        if (!marked) {
+            System.out.println("Skipping " + benchmark + " under " + cds + " CDS, the probe did not report a result:");
+            unrecognised.stream().skip(Math.max(0, unrecognised.size() - 10)).forEach(l -> System.out.println("    " + l));
+            return null;
+        }
+        return sample;
+    }
+
+    private Process start(final List<String> jvmArgs, final String benchmark, final String trainMillis) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(this.java);
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(this.classpath);
+        command.add(StartupProbe.class.getName());
+        command.add(benchmark);
+        if (trainMillis != null) {
+            command.add(trainMillis);
+        }
+        return new ProcessBuilder(command).redirectErrorStream(true).start();
+    }
+
+    /**
+     * @return the launcher's classpath, every non-empty directory in it packed into a jar of its own
+     */
+    private String packClasspath() throws IOException {
+        final Path jars = Files.createDirectories(this.dir.resolve("classpath"));
+        final List<String> entries = new ArrayList<>();
+        for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            final Path path = Paths.get(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            final Path jar = jars.resolve(entries.size() + "-" + path.getFileName() + ".jar");
+            try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); final Stream<Path> files = Files.walk(path)) {
+                for (final Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                    out.putNextEntry(new JarEntry(path.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * Writes every measurement, printing the medians across forks as a table of a row per benchmark, configuration and CDS
+     */
+    void write(final Path file) throws IOException {
+        try (final PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            out.println("benchmark,variant,cds,fork,timeToFirstResultMs,mainToFirstResultMs,firstInvocationMs,classesLoaded,classesFromArchive,compilations");
+            for (final Sample sample : this.samples) {
+                out.println(String.join(",", sample.benchmark, sample.variant, sample.cds.toString(), String.valueOf(sample.fork), millis(sample.wallNanos),
+                    millis(sample.mainNanos), millis(sample.firstNanos), String.valueOf(sample.classes), String.valueOf(sample.archivedClasses),
+                    String.valueOf(sample.compilations)));
+            }
+        }
+
+        System.out.println(String.format("%-60s %-30s %-10s %12s %12s %12s %10s %10s %10s", "Benchmark", "Configuration", "CDS", "to first ms", "main ms", "first ms",
+            "classes", "archived", "compiled"));
+        this.samples.stream().collect(Collectors.groupingBy(sample -> Arrays.asList(sample.benchmark, sample.variant, sample.cds.toString()), LinkedHashMap::new,
+            Collectors.toList())).forEach((key, forks) -> System.out.println(String.format("%-60s %-30s %-10s %12s %12s %12s %10d %10d %10d",
+            key.get(0).substring(key.get(0).lastIndexOf('.', key.get(0).lastIndexOf('.') - 1) + 1), key.get(1), key.get(2), millis(median(forks, s -> s.wallNanos)),
+            millis(median(forks, s -> s.mainNanos)), millis(median(forks, s -> s.firstNanos)), median(forks, s -> s.classes), median(forks, s -> s.archivedClasses),
+            median(forks, s -> s.compilations))));
+    }
+
+    private static long median(final List<Sample> samples, final ToLongFunction<Sample> metric) {
+        final long[] values = samples.stream().mapToLong(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.3f", nanos / 1_000_000D);
+    }
+
+    /**
+     * A single fork's measurements
+     */
+    private static class Sample {
+
+        private final String benchmark;
+        private final String variant;
+        private final Cds cds;
+        private final int fork;
+        private long wallNanos;
+        private long mainNanos;
+        private long firstNanos;
+        private long classes;
+        private long archivedClasses;
+        private long compilations;
+
+        Sample(final String benchmark, final String variant, final Cds cds, final int fork) {
+            this.benchmark = benchmark;
+            this.variant = variant;
+            this.cds = cds;
+            this.fork = fork;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+
+/**
+ * Discovers the benchmark suites of the project from the benchmark list JMH's annotation processor generates at compile time. A suite is a class holding {@code @Benchmark}
+ * methods
+ */
+public class SuiteRegistry {
+
+    private static final String BASE_PACKAGE = "com.nikoskatsanos.benchmarks.";
+
+    // suite class name -> benchmark methods
+    private final Map<String, Collection<String>> suites = new TreeMap<>();
+
+    public SuiteRegistry() {
+        try (final InputStream in = SuiteRegistry.class.getResourceAsStream(BenchmarkList.BENCHMARK_LIST)) {
+            if (in == null) {
+                throw new IllegalStateException("No " + BenchmarkList.BENCHMARK_LIST + " found in the classpath, have the benchmarks been compiled?");
+            }
+            for (final BenchmarkListEntry entry : BenchmarkList.readBenchmarkList(in)) {
+                this.suites.computeIfAbsent(entry.getUserClassQName(), k -> new TreeSet<>()).add(entry.getUsername());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Map<String, Collection<String>> getSuites() {
+        return this.suites;
+    }
+
+    /**
+     * Resolves suite selectors to JMH include patterns. A selector matches a suite by its simple class name (i.e. {@code SwitchVsMap}), its fully qualified class name or its
+     * package relative to the project's base package (i.e. {@code singlevsmanythreads} selects all suites of that package)
+     *
+     * @throws IllegalArgumentException if a selector matches no suite
+     */
+    public List<String> includes(final Collection<String> selectors) {
+        final List<String> includes = new ArrayList<>();
+        for (final String selector : selectors) {
+            boolean matched = false;
+            for (final String suite : this.suites.keySet()) {
+                if (matches(suite, selector)) {
+                    includes.add("^" + Pattern.quote(suite + "."));
+                    matched = true;
+                }
+            }
+            if (!matched) {
+                throw new IllegalArgumentException("No suite matches '" + selector + "', available suites: " + this.suites.keySet());
+            }
+        }
+        return includes;
+    }
+
+    private static boolean matches(final String suite, final String selector) {
+        final String simpleName = suite.substring(suite.lastIndexOf('.') + 1);
+        final String relativePackage = suite.startsWith(BASE_PACKAGE) ? suite.substring(BASE_PACKAGE.length(), suite.lastIndexOf('.')) : "";
+        return suite.equals(selector) || simpleName.equals(selector) || relativePackage.equals(selector);
+    }
+}
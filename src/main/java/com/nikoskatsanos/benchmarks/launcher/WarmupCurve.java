@@ -0,0 +1,144 @@
+package com.nikoskatsanos.benchmarks.launcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * The warmup of a benchmark, out of its {@code SingleShotTime} iterations (i.e. every iteration timing a single invocation, or a single batch), from a cold JVM to the steady
+ * state
+ * <p>
+ *     Per fork:
+ *     <ul>
+ *         <li><b>steady state</b> the median of the last 20% of the iterations</li>
+ *         <li><b>iterations to steady state</b> the first iteration starting a window of {@value #WINDOW} iterations with a median within {@value #TOLERANCE_PERCENT}% of the
+ *         steady state. Single shot timings are noisy, the window keeps a lucky iteration from counting as steady while the first time reaching the steady state (as opposed to
+ *         never leaving it again) keeps a later GC pause or a recompilation from pushing it back</li>
+ *         <li><b>time to steady state</b> the time spent in the iterations preceding it, excluding JMH's overhead in between iterations</li>
+ *     </ul>
+ *     Figures are the median across forks, as every fork warms up from scratch. A fork only reaching the steady state within the iterations it is taken from has not shown to
+ *     reach it, in which case the iterations to steady state are reported as {@link #NOT_REACHED} and more iterations (or a larger batch size) are needed.
+ * </p>
+ */
+public class WarmupCurve {
+
+    static final int WINDOW = 5;
+    static final int TOLERANCE_PERCENT = 10;
+    public static final int NOT_REACHED = -1;
+
+    private final String unit;
+    private final double first;
+    private final double firstN;
+    private final double steadyState;
+    private final int iterationsToSteadyState;
+    private final double timeToSteadyState;
+
+    private WarmupCurve(final String unit, final double first, final double firstN, final double steadyState, final int iterationsToSteadyState,
+        final double timeToSteadyState) {
+        this.unit = unit;
+        this.first = first;
+        this.firstN = firstN;
+        this.steadyState = steadyState;
+        this.iterationsToSteadyState = iterationsToSteadyState;
+        this.timeToSteadyState = timeToSteadyState;
+    }
+
+    /**
+     * @param n the number of first invocations to average
+     */
+    public static WarmupCurve of(final RunResult result, final int n) {
+        final List<double[]> forks = new ArrayList<>();
+        String unit = "";
+        for (final BenchmarkResult fork : result.getBenchmarkResults()) {
+            final List<IterationResult> iterations = new ArrayList<>(fork.getIterationResults());
+            final double[] scores = new double[iterations.size()];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = iterations.get(i).getPrimaryResult().getScore();
+                unit = iterations.get(i).getScoreUnit();
+            }
+            if (scores.length > 0) {
+                forks.add(scores);
+            }
+        }
+        return of(forks, unit, n);
+    }
+
+    static WarmupCurve of(final List<double[]> forks, final String unit, final int n) {
+        final int size = forks.size();
+        final double[] first = new double[size];
+        final double[] firstN = new double[size];
+        final double[] steadyState = new double[size];
+        final double[] iterationsToSteadyState = new double[size];
+        final double[] timeToSteadyState = new double[size];
+        boolean reached = true;
+        for (int f = 0; f < size; f++) {
+            final double[] scores = forks.get(f);
+            first[f] = scores[0];
+            firstN[f] = Arrays.stream(scores, 0, Math.min(n, scores.length)).average().orElse(Double.NaN);
+            final int steadyStateFrom = scores.length - Math.max(1, scores.length / 5);
+            steadyState[f] = median(Arrays.copyOfRange(scores, steadyStateFrom, scores.length));
+
+            final int steadyFrom = steadyFrom(scores, steadyState[f]);
+            reached &= steadyFrom < steadyStateFrom;
+            iterationsToSteadyState[f] = steadyFrom;
+            timeToSteadyState[f] = Arrays.stream(scores, 0, steadyFrom).sum();
+        }
+        return new WarmupCurve(unit, median(first), median(firstN), median(steadyState), reached ? (int) median(iterationsToSteadyState) : NOT_REACHED,
+            reached ? median(timeToSteadyState) : Double.NaN);
+    }
+
+    private static int steadyFrom(final double[] scores, final double steadyState) {
+        final double limit = steadyState * (100 + TOLERANCE_PERCENT) / 100;
+        for (int i = 0; i + WINDOW <= scores.length; i++) {
+            if (median(Arrays.copyOfRange(scores, i, i + WINDOW)) <= limit) {
+                return i;
+            }
+        }
+        return scores.length;
+    }
+
+    private static double median(final double[] values) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted.length % 2 == 1 ? sorted[sorted.length / 2] : (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+    }
+
+    /**
+     * @return the unit of the times, i.e. {@code us/op}
+     */
+    public String getUnit() {
+        return this.unit;
+    }
+
+    /**
+     * @return the time of the very first invocation, typically interpreted and including class loading and initialization
+     */
+    public double getFirst() {
+        return this.first;
+    }
+
+    /**
+     * @return the mean time of the first N invocations
+     */
+    public double getFirstN() {
+        return this.firstN;
+    }
+
+    public double getSteadyState() {
+        return this.steadyState;
+    }
+
+    public int getIterationsToSteadyState() {
+        return this.iterationsToSteadyState;
+    }
+
+    public double getTimeToSteadyState() {
+        return this.timeToSteadyState;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nikoskatsanos.benchmarks.loops;
 
+import com.nikoskatsanos.benchmarks.profile.CompilationProfiler;
+import com.nikoskatsanos.benchmarks.profile.JfrProfiler;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -114,6 +116,18 @@ public class SingleElementLoopBenchmark {
             add(listener);
         }};
 
+        public Listener[] getSingleListenerArray() {
+            return this.singleListenerArray;
+        }
+
+        public List<Listener> getSingleListenerList() {
+            return this.singleListenerList;
+        }
+
+        public Set<Listener> getSingleListenerSet() {
+            return this.singleListenerSet;
+        }
+
         public void invoke(final Blackhole blackhole) {
             this.listener.performAction(blackhole);
         }
@@ -145,20 +159,23 @@ public class SingleElementLoopBenchmark {
     }
 
     public static void main(String... args) throws RunnerException, CommandLineOptionException {
-        args = new String[]{"-prof", "dtraceasm", "hotThreshold", "0.02"};
+        if (args.length == 0) {
+            // dtraceasm is only available on MacOS, elsewhere JFR gives a profile without any extra setup
+            args = System.getProperty("os.name").startsWith("Mac") ? new String[]{"-prof", "dtraceasm:hotThreshold=0.02"}
+                : new String[]{"-prof", JfrProfiler.class.getName()};
+        }
         final Options options = new OptionsBuilder()
             .parent(new CommandLineOptions(args))
             .include(SingleElementLoopBenchmark.class.getSimpleName())
             .forks(1)
             .warmupIterations(5)
             .measurementIterations(10)
+            .addProfiler(CompilationProfiler.class)
             .jvmArgsAppend(
                 "-Xbatch",
                 "-XX:-TieredCompilation",
                 "-XX:+PrintCompilation",
                 "-XX:+UnlockDiagnosticVMOptions",
-                "-XX:+LogCompilation",
-                "-XX:LogFile=compiler.out",
                 "-XX:+PrintAssembly",
                 "-XX:+PrintInterpreter",
                 "-XX:+PrintNMethods",
@@ -0,0 +1,130 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters keyed by the values of an enum (i.e. order states, reject reasons), updated concurrently and read as an {@link EnumMap} snapshot
+ * <p>
+ *     The counters are the cells of a single {@link AtomicLongArray}, indexed by the key's ordinal, so that counting is an atomic add with no hashing, boxing or allocation.
+ *     How the cells are laid out decides how the counters behave under contention:
+ *     <ul>
+ *         <li><b>{@link #dense(Class)}</b> cells next to each other, the smallest footprint but threads counting different keys still false share a cache line</li>
+ *         <li><b>{@link #padded(Class)}</b> a cache line pair per cell, hence threads counting different keys never interfere</li>
+ *         <li><b>{@link #striped(Class)}</b> a row of cells per stripe and threads assigned a stripe each (in the spirit of {@link java.util.concurrent.atomic.LongAdder}), hence
+ *         threads counting the same key do not contend either, at the cost of reads summing every stripe</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     A snapshot reads each counter atomically but not all of them at once, i.e. counts made while it is taken may show for some keys and not for others. No count is ever lost
+ *     though, including when resetting.
+ * </p>
+ */
+public final class EnumCounters<E extends Enum<E>> {
+
+    // 128 bytes, as adjacent cache lines are prefetched in pairs
+    private static final int PAD = 16;
+
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+    private static final ThreadLocal<Integer> STRIPE = ThreadLocal.withInitial(NEXT_STRIPE::getAndIncrement);
+
+    private final Class<E> type;
+    private final E[] keys;
+    private final int cellStride;
+    private final int rowStride;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+
+    private EnumCounters(final Class<E> type, final int cellStride, final int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+        }
+        this.type = type;
+        this.keys = type.getEnumConstants();
+        this.cellStride = cellStride;
+        this.rowStride = (this.keys.length * cellStride + PAD - 1) / PAD * PAD;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(PAD + stripes * this.rowStride + PAD);
+    }
+
+    /**
+     * @return counters in adjacent cells
+     */
+    public static <E extends Enum<E>> EnumCounters<E> dense(final Class<E> type) {
+        return new EnumCounters<>(type, 1, 1);
+    }
+
+    /**
+     * @return counters in cells of their own cache lines
+     */
+    public static <E extends Enum<E>> EnumCounters<E> padded(final Class<E> type) {
+        return new EnumCounters<>(type, PAD, 1);
+    }
+
+    /**
+     * @return counters striped across as many rows as the machine's processors, rounded up to a power of two
+     */
+    public static <E extends Enum<E>> EnumCounters<E> striped(final Class<E> type) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return striped(type, Integer.highestOneBit(processors) == processors ? processors : Integer.highestOneBit(processors) << 1);
+    }
+
+    /**
+     * @param stripes a power of two, threads beyond that many share stripes
+     * @return counters striped across the given number of rows
+     */
+    public static <E extends Enum<E>> EnumCounters<E> striped(final Class<E> type, final int stripes) {
+        return new EnumCounters<>(type, 1, stripes);
+    }
+
+    public void increment(final E key) {
+        this.add(key, 1L);
+    }
+
+    public void add(final E key, final long delta) {
+        this.cells.getAndAdd(this.index(this.stripe(), key.ordinal()), delta);
+    }
+
+    public long get(final E key) {
+        long count = 0L;
+        for (int stripe = 0; stripe <= this.stripeMask; stripe++) {
+            count += this.cells.get(this.index(stripe, key.ordinal()));
+        }
+        return count;
+    }
+
+    /**
+     * @return every key's count
+     */
+    public EnumMap<E, Long> snapshot() {
+        final EnumMap<E, Long> snapshot = new EnumMap<>(this.type);
+        for (final E key : this.keys) {
+            snapshot.put(key, this.get(key));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return every key's count since the previous reset, counters starting over from zero
+     */
+    public EnumMap<E, Long> snapshotAndReset() {
+        final EnumMap<E, Long> snapshot = new EnumMap<>(this.type);
+        for (final E key : this.keys) {
+            long count = 0L;
+            for (int stripe = 0; stripe <= this.stripeMask; stripe++) {
+                count += this.cells.getAndSet(this.index(stripe, key.ordinal()), 0L);
+            }
+            snapshot.put(key, count);
+        }
+        return snapshot;
+    }
+
+    private int stripe() {
+        return this.stripeMask == 0 ? 0 : STRIPE.get() & this.stripeMask;
+    }
+
+    private int index(final int stripe, final int ordinal) {
+        return PAD + stripe * this.rowStride + ordinal * this.cellStride;
+    }
+}
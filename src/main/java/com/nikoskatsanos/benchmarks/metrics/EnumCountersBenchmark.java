@@ -0,0 +1,175 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     {@code SwitchVsMap} shows an {@link EnumMap} being the fastest map of an enum for a single thread, this compares counting per enum value from many threads:
+ *     <ul>
+ *         <li><b>denseCounters</b>, <b>paddedCounters</b>, <b>stripedCounters</b> the layouts of {@link EnumCounters}</li>
+ *         <li><b>concurrentHashMap</b> a {@link ConcurrentHashMap} of {@link LongAdder}s, the usual general purpose choice</li>
+ *         <li><b>lockedEnumMap</b> an {@link EnumMap} of counts guarded by a lock, each count a mutable holder so that only the lock is measured and not boxing</li>
+ *     </ul>
+ *     With {@code UNIFORM} keys threads count random reasons, hence mostly different ones, with {@code HOT} keys every thread counts the same one, the worst case for all but
+ *     striping.
+ * </p>
+ * <p>
+ *     {@link #main(String...)} runs the suite with one thread up to as many as the machine's processors, doubling, and prints a summary of throughput per thread count.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class EnumCountersBenchmark {
+
+    public enum Reason {
+        PRICE_OUT_OF_BAND, QUANTITY_TOO_LARGE, QUANTITY_TOO_SMALL, UNKNOWN_INSTRUMENT, INSTRUMENT_HALTED, MARKET_CLOSED, CREDIT_LIMIT, POSITION_LIMIT, DUPLICATE_ID,
+        THROTTLED, INVALID_SIDE, INVALID_TIME_IN_FORCE
+    }
+
+    private final EnumCounters<Reason> denseCounters = EnumCounters.dense(Reason.class);
+    private final EnumCounters<Reason> paddedCounters = EnumCounters.padded(Reason.class);
+    private final EnumCounters<Reason> stripedCounters = EnumCounters.striped(Reason.class);
+    private final ConcurrentHashMap<Reason, LongAdder> concurrentHashMap = new ConcurrentHashMap<>();
+    private final EnumMap<Reason, long[]> lockedEnumMap = new EnumMap<>(Reason.class);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (final Reason reason : Reason.values()) {
+            this.concurrentHashMap.put(reason, new LongAdder());
+            this.lockedEnumMap.put(reason, new long[1]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void denseCounters(final Keys keys) {
+        this.denseCounters.increment(keys.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void paddedCounters(final Keys keys) {
+        this.paddedCounters.increment(keys.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void stripedCounters(final Keys keys) {
+        this.stripedCounters.increment(keys.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void concurrentHashMap(final Keys keys) {
+        this.concurrentHashMap.computeIfAbsent(keys.next(), k -> new LongAdder()).increment();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void lockedEnumMap(final Keys keys) {
+        final Reason reason = keys.next();
+        synchronized (this.lockedEnumMap) {
+            this.lockedEnumMap.get(reason)[0]++;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private static final int KEYS = 1024;
+
+        @Param({"UNIFORM", "HOT"})
+        private String distribution;
+
+        private final Reason[] keys = new Reason[KEYS];
+        private int idx;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final Reason[] reasons = Reason.values();
+            for (int i = 0; i < KEYS; i++) {
+                this.keys[i] = "HOT".equals(this.distribution) ? Reason.THROTTLED : reasons[ThreadLocalRandom.current().nextInt(reasons.length)];
+            }
+        }
+
+        Reason next() {
+            this.idx = (this.idx + 1) & (KEYS - 1);
+            return this.keys[this.idx];
+        }
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < Runtime.getRuntime().availableProcessors(); threads <<= 1) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(Runtime.getRuntime().availableProcessors());
+
+        final Map<String, List<String>> rows = new LinkedHashMap<>();
+        for (int i = 0; i < threadCounts.size(); i++) {
+            final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(EnumCountersBenchmark.class.getSimpleName())
+                .forks(1)
+                .threads(threadCounts.get(i))
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .jvmArgsAppend(
+                    "-Xbatch",
+                    "-XX:-TieredCompilation",
+                    "-XX:+UnlockDiagnosticVMOptions"
+                )
+                .build();
+
+            final Collection<RunResult> results = new Runner(options).run();
+            for (final RunResult result : results) {
+                final String benchmark = result.getParams().getBenchmark();
+                final String key = String.format("%-18s %-8s", benchmark.substring(benchmark.lastIndexOf('.') + 1), result.getParams().getParam("distribution"));
+                final List<String> row = rows.computeIfAbsent(key, k -> new ArrayList<>());
+                while (row.size() < i) {
+                    row.add("-");
+                }
+                row.add(String.format("%.3f", result.getPrimaryResult().getScore()));
+            }
+        }
+
+        final StringBuilder header = new StringBuilder(String.format("%-18s %-8s", "counters", "keys"));
+        threadCounts.forEach(threads -> header.append(String.format(" %14s", threads + "t ops/us")));
+        System.out.println(header);
+        rows.forEach((key, row) -> {
+            final StringBuilder line = new StringBuilder(key);
+            row.forEach(score -> line.append(String.format(" %14s", score)));
+            System.out.println(line);
+        });
+    }
+}
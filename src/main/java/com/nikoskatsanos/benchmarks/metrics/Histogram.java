@@ -0,0 +1,163 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of non negative {@code long} values, in the spirit of <a href="http://hdrhistogram.org/">HdrHistogram</a>
+ * <p>
+ *     Values are mapped to buckets of 128 linear sub-buckets per power of two, hence any recorded value is reported with a relative error of less than 1%. The whole {@code long}
+ *     range is covered with a fixed array of {@value #BUCKETS} counters, so recording never allocates.
+ * </p>
+ * <p>
+ *     The histogram is <b>not</b> thread safe and is meant to be recorded into by a single thread. See {@link IntervalRecorder} for recording from many threads
+ * </p>
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 99.999};
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    static int indexOf(final long value) {
+        final int exponent = Math.max(0, (63 - SUB_BUCKET_BITS) - Long.numberOfLeadingZeros(value));
+        return (exponent << SUB_BUCKET_BITS) + (int) (value >>> exponent);
+    }
+
+    static long lowestEquivalentValue(final int index) {
+        final int exponent = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        return (long) (index - (exponent << SUB_BUCKET_BITS)) << exponent;
+    }
+
+    static long highestEquivalentValue(final int index) {
+        final int exponent = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        return lowestEquivalentValue(index) + (1L << exponent) - 1;
+    }
+
+    public void recordValue(final long value) {
+        this.recordValue(value, 1);
+    }
+
+    public void recordValue(final long value, final long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values cannot be recorded: " + value);
+        }
+        this.counts[indexOf(value)] += count;
+        this.totalCount += count;
+        this.minValue = Math.min(this.minValue, value);
+        this.maxValue = Math.max(this.maxValue, value);
+    }
+
+    /**
+     * Records the value and back-fills the samples that would have been taken had the recording thread not been stalled, correcting for coordinated omission
+     *
+     * @param value                 the observed value
+     * @param expectedIntervalValue the interval at which samples are expected to be recorded
+     */
+    public void recordValueWithExpectedInterval(final long value, final long expectedIntervalValue) {
+        this.recordValue(value);
+        if (expectedIntervalValue <= 0) {
+            return;
+        }
+        for (long missing = value - expectedIntervalValue; missing >= expectedIntervalValue; missing -= expectedIntervalValue) {
+            this.recordValue(missing);
+        }
+    }
+
+    void addBucketCount(final int index, final long count) {
+        this.counts[index] += count;
+        this.totalCount += count;
+        this.minValue = Math.min(this.minValue, lowestEquivalentValue(index));
+        this.maxValue = Math.max(this.maxValue, highestEquivalentValue(index));
+    }
+
+    public void add(final Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.totalCount += other.totalCount;
+        this.minValue = Math.min(this.minValue, other.minValue);
+        this.maxValue = Math.max(this.maxValue, other.maxValue);
+    }
+
+    public void copyInto(final Histogram target) {
+        System.arraycopy(this.counts, 0, target.counts, 0, BUCKETS);
+        target.totalCount = this.totalCount;
+        target.minValue = this.minValue;
+        target.maxValue = this.maxValue;
+    }
+
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.totalCount = 0;
+        this.minValue = Long.MAX_VALUE;
+        this.maxValue = 0;
+    }
+
+    public long getTotalCount() {
+        return this.totalCount;
+    }
+
+    public long getCountAtValue(final long value) {
+        return this.counts[indexOf(value)];
+    }
+
+    public long getMinValue() {
+        return this.totalCount == 0 ? 0 : this.minValue;
+    }
+
+    public long getMaxValue() {
+        return this.maxValue;
+    }
+
+    public double getMean() {
+        if (this.totalCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (this.counts[i] != 0) {
+                sum += (double) this.counts[i] * ((lowestEquivalentValue(i) + highestEquivalentValue(i)) / 2);
+            }
+        }
+        return sum / this.totalCount;
+    }
+
+    /**
+     * @param percentile a percentile in the range of {@code [0, 100]}
+     * @return the highest value equivalent to the bucket holding the percentile, capped at the max value recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (this.totalCount == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * this.totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), this.maxValue);
+            }
+        }
+        return this.maxValue;
+    }
+
+    /**
+     * Prints a percentile summary, with every value divided by the given scaling ratio (i.e. {@code 1_000_000} to print nanosecond values in milliseconds)
+     */
+    public void outputPercentileDistribution(final PrintStream out, final double scalingRatio) {
+        out.println(String.format("%12s %14s", "Percentile", "Value"));
+        out.println(String.format("%12s %14.3f", "min", this.getMinValue() / scalingRatio));
+        for (final double percentile : PERCENTILES) {
+            out.println(String.format("%12s %14.3f", percentile, this.getValueAtPercentile(percentile) / scalingRatio));
+        }
+        out.println(String.format("%12s %14.3f", "max", this.getMaxValue() / scalingRatio));
+        out.println(String.format("#[Mean = %.3f, TotalCount = %d]", this.getMean() / scalingRatio, this.getTotalCount()));
+    }
+}
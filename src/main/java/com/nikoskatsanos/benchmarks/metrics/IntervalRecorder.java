@@ -0,0 +1,63 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records values from many threads into a {@link Histogram} layout and hands out interval snapshots, in the spirit of HdrHistogram's {@code Recorder}
+ * <p>
+ *     Recording is wait-free: three atomic increments (entering and exiting a {@link WriterReaderPhaser} critical section and the bucket itself) and no allocation. Taking a
+ *     snapshot swaps the active buckets for an empty set and waits only for the writers that were already in flight, so writers are never blocked by the reader.
+ * </p>
+ * <p>
+ *     The bucket counts of an interval are transferred to the target {@link Histogram}, hence its min and max are reported at bucket precision. Values below 256 have buckets of
+ *     their own, so small values (i.e. digits, enum ordinals) are counted exactly.
+ * </p>
+ */
+public class IntervalRecorder {
+
+    private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+
+    private volatile AtomicLongArray activeCounts = new AtomicLongArray(Histogram.BUCKETS);
+    private AtomicLongArray inactiveCounts = new AtomicLongArray(Histogram.BUCKETS);
+
+    private long intervalStartNanos = System.nanoTime();
+
+    public void recordValue(final long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values cannot be recorded: " + value);
+        }
+        final long criticalValue = this.phaser.writerCriticalSectionEnter();
+        try {
+            this.activeCounts.getAndIncrement(Histogram.indexOf(value));
+        } finally {
+            this.phaser.writerCriticalSectionExit(criticalValue);
+        }
+    }
+
+    /**
+     * Moves the values recorded since the previous call into the given histogram, replacing its contents
+     *
+     * @param target the histogram to hold the interval's values
+     * @return the length of the interval in nanos
+     */
+    public synchronized long getIntervalHistogram(final Histogram target) {
+        final AtomicLongArray intervalCounts = this.activeCounts;
+        this.activeCounts = this.inactiveCounts;
+        this.phaser.flipPhase();
+        this.inactiveCounts = intervalCounts;
+
+        final long now = System.nanoTime();
+        final long intervalNanos = now - this.intervalStartNanos;
+        this.intervalStartNanos = now;
+
+        target.reset();
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            final long count = intervalCounts.get(i);
+            if (count != 0) {
+                target.addBucketCount(i, count);
+                intervalCounts.set(i, 0);
+            }
+        }
+        return intervalNanos;
+    }
+}
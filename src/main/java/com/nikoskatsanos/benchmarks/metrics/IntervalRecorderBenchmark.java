@@ -0,0 +1,117 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * Measures the cost of recording a metric on a hot path, using the same workload as {@code VariousGCsNaiveRunner} (counting the last digit of a random number):
+ * <ul>
+ *     <li>A {@code synchronized} holder of a boxed {@link Integer} per digit, as {@code VariousGCsNaiveRunner.MutableIntHolder}</li>
+ *     <li>A {@link LongAdder} per digit</li>
+ *     <li>An {@link IntervalRecorder}, recording the digit as a value</li>
+ * </ul>
+ * The {@code recordWhileSnapshotting} group runs three recording threads alongside a thread taking interval snapshots back to back, showing the cost a reader imposes on the
+ * writers. The other benchmarks are best run with a varying number of threads (i.e. {@code -t 1}, {@code -t 4}) to observe the effect of contention.
+ */
+@State(Scope.Benchmark)
+public class IntervalRecorderBenchmark {
+
+    private final SynchronizedHolder[] holders = new SynchronizedHolder[10];
+    private final LongAdder[] adders = new LongAdder[10];
+    private final IntervalRecorder recorder = new IntervalRecorder();
+
+    public IntervalRecorderBenchmark() {
+        for (int i = 0; i < 10; i++) {
+            this.holders[i] = new SynchronizedHolder();
+            this.adders[i] = new LongAdder();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void synchronizedHolder() {
+        this.holders[ThreadLocalRandom.current().nextInt(10)].increment();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void longAdder() {
+        this.adders[ThreadLocalRandom.current().nextInt(10)].increment();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void intervalRecorder() {
+        this.recorder.recordValue(ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(3)
+    @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void record() {
+        this.recorder.recordValue(ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(1)
+    @BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void snapshot(final SnapshotState state, final Blackhole blackhole) {
+        blackhole.consume(this.recorder.getIntervalHistogram(state.histogram));
+        blackhole.consume(state.histogram.getTotalCount());
+    }
+
+    @State(Scope.Thread)
+    public static class SnapshotState {
+        private final Histogram histogram = new Histogram();
+    }
+
+    private static class SynchronizedHolder {
+        private Integer num = 0;
+
+        synchronized SynchronizedHolder increment() {
+            num++;
+            return this;
+        }
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(IntervalRecorderBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(5)
+            .measurementIterations(10)
+            .jvmArgsAppend(
+                "-Xbatch",
+                "-XX:-TieredCompilation",
+                "-XX:+UnlockDiagnosticVMOptions"
+            )
+            .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,41 @@
+package com.nikoskatsanos.benchmarks.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A phaser allowing wait-free writers to coordinate with a (blocking) reader, following <a href="http://stuff-gil-says.blogspot.com/2014/11/writerreaderphaser-story-about-new.html">
+ * WriterReaderPhaser</a>
+ * <p>
+ *     Writers wrap their updates of the active data structure in {@link #writerCriticalSectionEnter()}/{@link #writerCriticalSectionExit(long)}, which are a single atomic
+ *     increment each. A reader swaps the active data structure for an inactive one and calls {@link #flipPhase()}, which returns once all writers that could have observed the
+ *     previously active data structure have exited their critical section. Readers must be serialized between them by the caller.
+ * </p>
+ */
+class WriterReaderPhaser {
+
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    long writerCriticalSectionEnter() {
+        return this.startEpoch.getAndIncrement();
+    }
+
+    void writerCriticalSectionExit(final long criticalValueAtEnter) {
+        (criticalValueAtEnter < 0 ? this.oddEndEpoch : this.evenEndEpoch).getAndIncrement();
+    }
+
+    void flipPhase() {
+        final boolean nextPhaseIsEven = this.startEpoch.get() < 0;
+        final long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+
+        (nextPhaseIsEven ? this.evenEndEpoch : this.oddEndEpoch).set(initialStartValue);
+        final long startValueAtFlip = this.startEpoch.getAndSet(initialStartValue);
+
+        final AtomicLong previousEndEpoch = nextPhaseIsEven ? this.oddEndEpoch : this.evenEndEpoch;
+        while (previousEndEpoch.get() != startValueAtFlip) {
+            LockSupport.parkNanos(1_000);
+        }
+    }
+}
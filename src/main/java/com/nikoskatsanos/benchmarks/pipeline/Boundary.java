@@ -0,0 +1,62 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import java.util.function.Consumer;
+
+/**
+ * How an event crosses from one stage of a {@link Pipeline} to the next
+ */
+public enum Boundary {
+
+    /**
+     * A plain method call, every stage runs on the publishing thread. The baseline, free of any hand-over
+     */
+    DIRECT {
+        @Override
+        Hop connect(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+            return new Hop() {
+                @Override
+                public void publish(final PipelineEvent event) {
+                    stage.accept(event);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    },
+    /**
+     * A bounded {@link java.util.concurrent.ArrayBlockingQueue}, the stage's thread parking while it is empty and the publisher parking while it is full
+     */
+    QUEUE {
+        @Override
+        Hop connect(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+            return new QueueHop(name, stage, capacity);
+        }
+    },
+    /**
+     * A single-producer single-consumer {@link SpscRingBuffer}, both sides spinning (then yielding) instead of parking
+     */
+    RING {
+        @Override
+        Hop connect(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+            return new RingHop(name, stage, capacity);
+        }
+    },
+    /**
+     * A {@link java.util.concurrent.SubmissionPublisher}, the stage subscribing to it and signalling demand in batches, the publisher blocking once the demand is used up
+     */
+    FLOW {
+        @Override
+        Hop connect(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+            return new FlowHop(name, stage, capacity);
+        }
+    };
+
+    /**
+     * @param name     the name of the stage, hence of its thread
+     * @param stage    the work of the stage, including handing the event to the next one
+     * @param capacity the number of events the boundary holds before blocking the publisher
+     */
+    abstract Hop connect(String name, Consumer<PipelineEvent> stage, int capacity);
+}
@@ -0,0 +1,97 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Boundary#FLOW} hop, a stage subscribed to a {@link SubmissionPublisher}
+ * <p>
+ *     The stage requests the boundary's capacity up front and tops the demand up every half of it consumed, rather than one event at a time, as requesting is not free. Once
+ *     the stage's buffer is full {@link SubmissionPublisher#submit(Object)} blocks, which is the backpressure on the publisher.
+ * </p>
+ * <p>
+ *     A stage throwing cancels its subscription, after which the publisher drops every event. The failure is recorded instead and rethrown on the next publish or
+ *     {@link #checkFailure()}, so that a benchmark fails rather than waiting for events that will never come out.
+ * </p>
+ */
+class FlowHop implements Hop {
+
+    private final String name;
+    private final ExecutorService executor;
+    private final SubmissionPublisher<PipelineEvent> publisher;
+    private volatile Throwable failure;
+
+    FlowHop(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+        this.name = name;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher = new SubmissionPublisher<>(this.executor, capacity);
+        this.publisher.subscribe(new StageSubscriber(stage, capacity, this));
+    }
+
+    @Override
+    public void publish(final PipelineEvent event) {
+        this.checkFailure();
+        this.publisher.submit(event);
+    }
+
+    @Override
+    public void checkFailure() {
+        final Throwable failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("Stage " + this.name + " failed", failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.publisher.close();
+        this.executor.shutdownNow();
+    }
+
+    private static class StageSubscriber implements Subscriber<PipelineEvent> {
+
+        private final Consumer<PipelineEvent> stage;
+        private final int batch;
+        private final FlowHop hop;
+        private Subscription subscription;
+        private int consumed;
+
+        StageSubscriber(final Consumer<PipelineEvent> stage, final int capacity, final FlowHop hop) {
+            this.stage = stage;
+            this.batch = Math.max(1, capacity / 2);
+            this.hop = hop;
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            this.subscription.request(this.batch * 2L);
+        }
+
+        @Override
+        public void onNext(final PipelineEvent event) {
+            this.stage.accept(event);
+            if (++this.consumed == this.batch) {
+                this.consumed = 0;
+                this.subscription.request(this.batch);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.hop.failure = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
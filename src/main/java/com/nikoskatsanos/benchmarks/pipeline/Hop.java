@@ -0,0 +1,24 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+/**
+ * The boundary in front of a stage of a {@link Pipeline}, handing events to it
+ */
+interface Hop extends AutoCloseable {
+
+    /**
+     * Hands the event to the stage, blocking (or spinning) while the stage is behind and the boundary is full
+     */
+    void publish(PipelineEvent event);
+
+    /**
+     * @throws IllegalStateException if the stage has failed, hence events handed to it will never come out
+     */
+    default void checkFailure() {
+    }
+
+    /**
+     * Stops the thread of the stage, if any. Events still in flight are dropped
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,162 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import com.nikoskatsanos.benchmarks.codec.AsciiCodec;
+import com.nikoskatsanos.benchmarks.singlevsmanythreads.SetBitsCalculator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The set-bits workload of {@code singlevsmanythreads} as a pipeline of stages, each entered through a {@link Boundary}:
+ * <ol>
+ *     <li><b>decode</b> the number out of its ASCII text</li>
+ *     <li><b>popcount</b> its set bits, with {@link SetBitsCalculator}</li>
+ *     <li><b>classify</b> it as even or odd by its set bits</li>
+ *     <li><b>aggregate</b> the even and odd counts</li>
+ * </ol>
+ * With fewer stages than steps, consecutive steps share a stage. With more, pass-through relay stages (i.e. journaling or routing in a real system) are placed ahead of the
+ * aggregation, so that every stage adds a hop. Every stage, the first one included, is entered through a boundary, hence a pipeline of N stages has N hops.
+ * <p>
+ *     Events are to be published by a single thread, as every boundary is a single-producer one.
+ * </p>
+ */
+public class Pipeline implements AutoCloseable {
+
+    public enum Step {
+        DECODE, POPCOUNT, CLASSIFY, RELAY, AGGREGATE
+    }
+
+    private static final List<Step> STEPS = List.of(Step.DECODE, Step.POPCOUNT, Step.CLASSIFY, Step.AGGREGATE);
+
+    private final List<List<Step>> layout;
+    private final List<Hop> hops = new ArrayList<>();
+
+    // written by the last stage only
+    private long evenCount;
+    private long oddCount;
+    private final AtomicLong completed = new AtomicLong();
+
+    /**
+     * @param capacity the capacity of every boundary, a power of two
+     */
+    public Pipeline(final int stages, final Boundary boundary, final int capacity) {
+        this.layout = layout(stages);
+
+        Hop next = null;
+        for (int i = this.layout.size() - 1; i >= 0; i--) {
+            final List<Step> steps = this.layout.get(i);
+            final Hop downstream = next;
+            final Consumer<PipelineEvent> stage = event -> {
+                for (int s = 0; s < steps.size(); s++) {
+                    this.process(steps.get(s), event);
+                }
+                if (downstream != null) {
+                    downstream.publish(event);
+                }
+            };
+            next = boundary.connect("pipeline-stage-" + i, stage, capacity);
+            this.hops.add(0, next);
+        }
+    }
+
+    /**
+     * @return the steps of every stage, i.e. {@code [[DECODE, POPCOUNT], [CLASSIFY, AGGREGATE]]} for two stages
+     */
+    static List<List<Step>> layout(final int stages) {
+        if (stages < 1) {
+            throw new IllegalArgumentException("A pipeline needs at least one stage: " + stages);
+        }
+        final List<List<Step>> layout = new ArrayList<>();
+        for (int i = 0; i < stages; i++) {
+            layout.add(new ArrayList<>());
+        }
+        if (stages <= STEPS.size()) {
+            for (int s = 0; s < STEPS.size(); s++) {
+                layout.get(s * stages / STEPS.size()).add(STEPS.get(s));
+            }
+        } else {
+            for (int s = 0; s < STEPS.size() - 1; s++) {
+                layout.get(s).add(STEPS.get(s));
+            }
+            for (int r = STEPS.size() - 1; r < stages - 1; r++) {
+                layout.get(r).add(Step.RELAY);
+            }
+            layout.get(stages - 1).add(Step.AGGREGATE);
+        }
+        return Collections.unmodifiableList(layout);
+    }
+
+    private void process(final Step step, final PipelineEvent event) {
+        switch (step) {
+            case DECODE:
+                event.value = AsciiCodec.parseLong(event.encoded, 0, event.length);
+                break;
+            case POPCOUNT:
+                event.setBits = SetBitsCalculator.countSetBits(event.value);
+                break;
+            case CLASSIFY:
+                event.even = event.setBits % 2 == 0;
+                break;
+            case AGGREGATE:
+                if (event.even) {
+                    this.evenCount++;
+                } else {
+                    this.oddCount++;
+                }
+                this.completed.lazySet(this.completed.get() + 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void publish(final PipelineEvent event) {
+        this.hops.get(0).publish(event);
+    }
+
+    /**
+     * Waits, spinning, for the last stage to be done with the given number of events
+     *
+     * @throws IllegalStateException if a stage has failed, hence the events would never be done with
+     */
+    public void await(final long events) {
+        while (this.completed.get() < events) {
+            for (int i = 0; i < this.hops.size(); i++) {
+                this.hops.get(i).checkFailure();
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the number of events the last stage is done with
+     */
+    public long getCompleted() {
+        return this.completed.get();
+    }
+
+    /**
+     * @return the even count, only consistent once {@link #getCompleted()} has caught up with the events published
+     */
+    public long getEvenCount() {
+        return this.evenCount;
+    }
+
+    /**
+     * @return the odd count, only consistent once {@link #getCompleted()} has caught up with the events published
+     */
+    public long getOddCount() {
+        return this.oddCount;
+    }
+
+    public List<List<Step>> getLayout() {
+        return this.layout;
+    }
+
+    @Override
+    public void close() {
+        this.hops.forEach(Hop::close);
+    }
+}
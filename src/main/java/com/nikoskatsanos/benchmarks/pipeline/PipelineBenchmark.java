@@ -0,0 +1,138 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import com.nikoskatsanos.benchmarks.codec.AsciiCodec;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Measures the cost of the hops of a multi-stage {@link Pipeline} (decode, popcount, classify, aggregate), as the number of stages and the {@link Boundary} between them
+ *     vary:
+ *     <ul>
+ *         <li><b>throughput</b> events published back to back, the boundaries' backpressure keeping the publisher to the pace of the slowest stage</li>
+ *         <li><b>latency</b> a single event in flight at a time, timed from its publishing until the last stage is done with it, hence the cost of the hops themselves with no
+ *         queueing (i.e. including waking up a parked stage)</li>
+ *     </ul>
+ *     {@code DIRECT} is the baseline of the work itself, every other boundary adds a thread per stage. Stages spin with {@code RING}, hence with more stages than cores its
+ *     numbers say more about the scheduler than about the ring. The publisher is a single thread, as the boundaries are single-producer ones.
+ * </p>
+ * <p>
+ *     {@link #main(String...)} prints a summary of throughput and latency percentiles per stage count and boundary.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+public class PipelineBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @Param({"1", "2", "4", "6"})
+    private int stages;
+
+    @Param({"DIRECT", "QUEUE", "RING", "FLOW"})
+    private Boundary boundary;
+
+    @Param({"1024"})
+    private int capacity;
+
+    private final byte[][] encoded = new byte[VALUES][AsciiCodec.MAX_LONG_LENGTH];
+    private final int[] lengths = new int[VALUES];
+
+    private Pipeline pipeline;
+    private long published;
+    private int idx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < VALUES; i++) {
+            this.lengths[i] = AsciiCodec.putLong(this.encoded[i], 0, random.nextLong());
+        }
+        this.pipeline = new Pipeline(this.stages, this.boundary, this.capacity);
+        this.published = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pipeline.close();
+    }
+
+    private PipelineEvent nextEvent() {
+        this.idx = (this.idx + 1) & (VALUES - 1);
+        this.published++;
+        return new PipelineEvent(this.encoded[this.idx], this.lengths[this.idx]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void throughput() {
+        this.pipeline.publish(this.nextEvent());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long latency() {
+        this.pipeline.publish(this.nextEvent());
+        this.pipeline.await(this.published);
+        return this.published;
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(PipelineBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .jvmArgsAppend(
+                "-Xbatch",
+                "-XX:-TieredCompilation",
+                "-XX:+UnlockDiagnosticVMOptions"
+            )
+            .build();
+
+        final Collection<RunResult> results = new Runner(options).run();
+
+        final Map<String, List<String>> rows = new LinkedHashMap<>();
+        for (final RunResult result : results) {
+            final String key = String.format("%6s %-8s", result.getParams().getParam("stages"), result.getParams().getParam("boundary"));
+            final List<String> row = rows.computeIfAbsent(key, k -> new ArrayList<>(List.of("-", "-", "-", "-")));
+            if (result.getParams().getMode() == Mode.Throughput) {
+                row.set(0, String.format("%.3f", result.getPrimaryResult().getScore()));
+            } else {
+                row.set(1, String.format("%.0f", result.getPrimaryResult().getStatistics().getPercentile(50)));
+                row.set(2, String.format("%.0f", result.getPrimaryResult().getStatistics().getPercentile(99)));
+                row.set(3, String.format("%.0f", result.getPrimaryResult().getStatistics().getPercentile(99.9)));
+            }
+        }
+
+        System.out.println(String.format("%6s %-8s %12s %12s %12s %12s", "stages", "boundary", "ops/us", "p50 ns", "p99 ns", "p99.9 ns"));
+        rows.forEach((key, row) -> System.out.println(String.format("%s %12s %12s %12s %12s", key, row.get(0), row.get(1), row.get(2), row.get(3))));
+    }
+}
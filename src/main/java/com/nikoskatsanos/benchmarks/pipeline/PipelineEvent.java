@@ -0,0 +1,37 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+/**
+ * The message flowing through a {@link Pipeline}, every stage filling in the fields of its step
+ * <p>
+ *     Handed from stage to stage, never shared by two stages at the same time. Visibility across threads is left to the boundary in between, as a real message's would.
+ * </p>
+ */
+public class PipelineEvent {
+
+    final byte[] encoded;
+    final int length;
+
+    long value;
+    short setBits;
+    boolean even;
+
+    /**
+     * @param encoded a number, as ASCII text
+     */
+    public PipelineEvent(final byte[] encoded, final int length) {
+        this.encoded = encoded;
+        this.length = length;
+    }
+
+    public long getValue() {
+        return this.value;
+    }
+
+    public short getSetBits() {
+        return this.setBits;
+    }
+
+    public boolean isEven() {
+        return this.even;
+    }
+}
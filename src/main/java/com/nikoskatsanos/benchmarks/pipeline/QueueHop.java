@@ -0,0 +1,68 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Boundary#QUEUE} hop, a thread taking events off a bounded blocking queue, as {@code BlockingQueueBackedActor}
+ * <p>
+ *     A stage throwing stops the thread. The failure is recorded and rethrown on the next publish or {@link #checkFailure()}, a publish blocked on a full queue included, so
+ *     that a benchmark fails rather than waiting for events that will never come out.
+ * </p>
+ */
+class QueueHop implements Hop {
+
+    // how often a publish blocked on a full queue checks whether the stage has failed
+    private static final long FAILURE_CHECK_MILLIS = 10;
+
+    private final String name;
+    private final BlockingQueue<PipelineEvent> queue;
+    private final Thread thread;
+    private volatile Throwable failure;
+
+    QueueHop(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    stage.accept(this.queue.take());
+                }
+            } catch (final InterruptedException e) {
+                // closed
+            } catch (final Throwable t) {
+                this.failure = t;
+            }
+        }, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void publish(final PipelineEvent event) {
+        this.checkFailure();
+        try {
+            while (!this.queue.offer(event, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                this.checkFailure();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing to stage " + this.name, e);
+        }
+    }
+
+    @Override
+    public void checkFailure() {
+        final Throwable failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("Stage " + this.name + " failed", failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.thread.interrupt();
+    }
+}
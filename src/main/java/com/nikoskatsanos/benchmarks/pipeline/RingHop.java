@@ -0,0 +1,79 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import java.util.function.Consumer;
+
+/**
+ * A {@link Boundary#RING} hop, a thread polling a {@link SpscRingBuffer}
+ * <p>
+ *     Neither side parks: both busy spin for a while and then yield, trading a core per stage for not paying a wake-up on every hand-over.
+ * </p>
+ * <p>
+ *     A stage throwing stops the thread. The failure is recorded and rethrown on the next publish or {@link #checkFailure()}, a publish spinning on a full ring included, so
+ *     that a benchmark fails rather than waiting for events that will never come out.
+ * </p>
+ */
+class RingHop implements Hop {
+
+    private static final int SPINS = 100;
+
+    private final String name;
+    private final SpscRingBuffer<PipelineEvent> ring;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+
+    RingHop(final String name, final Consumer<PipelineEvent> stage, final int capacity) {
+        this.name = name;
+        this.ring = new SpscRingBuffer<>(capacity);
+        this.thread = new Thread(() -> {
+            int idle = 0;
+            try {
+                while (this.running) {
+                    final PipelineEvent event = this.ring.poll();
+                    if (event != null) {
+                        stage.accept(event);
+                        idle = 0;
+                    } else {
+                        idle = idle(idle);
+                    }
+                }
+            } catch (final Throwable t) {
+                this.failure = t;
+            }
+        }, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void publish(final PipelineEvent event) {
+        this.checkFailure();
+        int idle = 0;
+        while (!this.ring.offer(event) && this.running) {
+            this.checkFailure();
+            idle = idle(idle);
+        }
+    }
+
+    @Override
+    public void checkFailure() {
+        final Throwable failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("Stage " + this.name + " failed", failure);
+        }
+    }
+
+    private static int idle(final int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return idle + 1;
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+    }
+}
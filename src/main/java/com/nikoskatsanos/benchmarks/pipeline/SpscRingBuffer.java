@@ -0,0 +1,58 @@
+package com.nikoskatsanos.benchmarks.pipeline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, single-producer single-consumer ring buffer
+ * <p>
+ *     Having a single producer and a single consumer, each side owns its position and only reads the other's, hence neither needs a CAS: an element is written before its
+ *     position is published (a release store, {@link AtomicLongArray#lazySet(int, long)}), and read after the position is observed.
+ * </p>
+ */
+class SpscRingBuffer<E> {
+
+    // head and tail 128 bytes apart, so that the producer and the consumer do not false share
+    private static final int HEAD = 16;
+    private static final int TAIL = 32;
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLongArray positions = new AtomicLongArray(TAIL + 16);
+
+    SpscRingBuffer(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code false} if the buffer is full. To be called by the producer only
+     */
+    boolean offer(final E element) {
+        final long tail = this.positions.get(TAIL);
+        if (tail - this.positions.get(HEAD) > this.mask) {
+            return false;
+        }
+        this.buffer[(int) tail & this.mask] = element;
+        this.positions.lazySet(TAIL, tail + 1);
+        return true;
+    }
+
+    /**
+     * @return {@code null} if the buffer is empty. To be called by the consumer only
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        final long head = this.positions.get(HEAD);
+        if (head == this.positions.get(TAIL)) {
+            return null;
+        }
+        final int index = (int) head & this.mask;
+        final E element = (E) this.buffer[index];
+        this.buffer[index] = null;
+        this.positions.lazySet(HEAD, head + 1);
+        return element;
+    }
+}
@@ -0,0 +1,41 @@
+package com.nikoskatsanos.benchmarks.pooling;
+
+/**
+ * A mutable message, the kind of object a protocol decoder hands to its listeners. Its size is driven by the payload: a message without payload is a small object of a few
+ * primitive fields, whereas a message with a payload carries a {@code byte[]} along
+ */
+public class Message {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private long id;
+    private int type;
+    private long timestamp;
+    private final byte[] payload;
+
+    public Message(final int payloadSize) {
+        this.payload = payloadSize == 0 ? EMPTY : new byte[payloadSize];
+    }
+
+    public Message set(final long id, final int type, final long timestamp) {
+        this.id = id;
+        this.type = type;
+        this.timestamp = timestamp;
+        for (int i = 0; i < Math.min(Long.BYTES, this.payload.length); i++) {
+            this.payload[i] = (byte) (id >>> (i * 8));
+        }
+        return this;
+    }
+
+    public void reset() {
+        this.id = 0;
+        this.type = 0;
+        this.timestamp = 0;
+    }
+
+    public long checksum() {
+        long checksum = this.id * 31 + this.type;
+        checksum = checksum * 31 + this.timestamp;
+        return this.payload.length == 0 ? checksum : checksum * 31 + this.payload[0];
+    }
+}
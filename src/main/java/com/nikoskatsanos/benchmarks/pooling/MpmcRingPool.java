@@ -0,0 +1,83 @@
+package com.nikoskatsanos.benchmarks.pooling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free pool shared by all threads, backed by a bounded multi-producer multi-consumer ring buffer following
+ * <a href="https://www.1024cores.net/home/lock-free-algorithms/queues/bounded-mpmc-queue">Dmitry Vyukov's bounded MPMC queue</a>
+ * <p>
+ *     Every slot carries a sequence number telling producers and consumers whether it is theirs to claim, so a slot is claimed with a single CAS on the head or tail and no
+ *     allocation takes place. An intrusive Treiber stack would be cheaper still, but reusing its nodes exposes it to the ABA problem, which cannot be solved without a stamped
+ *     (and allocating) reference.
+ * </p>
+ */
+public class MpmcRingPool<T> implements ObjectPool<T> {
+
+    // head and tail 128 bytes apart, so that producers and consumers do not false share
+    private static final int HEAD = 16;
+    private static final int TAIL = 32;
+
+    private final Supplier<T> factory;
+    private final int mask;
+    private final AtomicReferenceArray<T> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray positions = new AtomicLongArray(TAIL + 16);
+
+    public MpmcRingPool(final int capacity, final Supplier<T> factory) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.factory = factory;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public T acquire() {
+        long position = this.positions.get(HEAD);
+        while (true) {
+            final int index = (int) position & this.mask;
+            final long difference = this.sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (this.positions.compareAndSet(HEAD, position, position + 1)) {
+                    final T instance = this.buffer.get(index);
+                    this.buffer.lazySet(index, null);
+                    this.sequences.lazySet(index, position + this.mask + 1);
+                    return instance;
+                }
+                position = this.positions.get(HEAD);
+            } else if (difference < 0) {
+                return this.factory.get();
+            } else {
+                position = this.positions.get(HEAD);
+            }
+        }
+    }
+
+    @Override
+    public void release(final T instance) {
+        long position = this.positions.get(TAIL);
+        while (true) {
+            final int index = (int) position & this.mask;
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.positions.compareAndSet(TAIL, position, position + 1)) {
+                    this.buffer.lazySet(index, instance);
+                    this.sequences.lazySet(index, position + 1);
+                    return;
+                }
+                position = this.positions.get(TAIL);
+            } else if (difference < 0) {
+                return;
+            } else {
+                position = this.positions.get(TAIL);
+            }
+        }
+    }
+}
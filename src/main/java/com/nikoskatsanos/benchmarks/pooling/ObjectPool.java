@@ -0,0 +1,14 @@
+package com.nikoskatsanos.benchmarks.pooling;
+
+public interface ObjectPool<T> {
+
+    /**
+     * @return a pooled instance, or a newly allocated one if the pool is empty
+     */
+    T acquire();
+
+    /**
+     * Returns the instance to the pool. If the pool is full the instance is dropped and left to the GC
+     */
+    void release(final T instance);
+}
@@ -0,0 +1,189 @@
+package com.nikoskatsanos.benchmarks.pooling;
+
+import com.nikoskatsanos.benchmarks.hiccup.HiccupProfiler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ *     Compares the strategies used to obtain short lived message objects on a hot path:
+ *     <ul>
+ *         <li><b>allocate</b> a new {@link Message} per operation, left to the GC</li>
+ *         <li><b>threadLocalPool</b> a {@link ThreadLocalPool}, no synchronization</li>
+ *         <li><b>sharedPool</b> a {@link MpmcRingPool}, lock-free and shared by all threads</li>
+ *         <li><b>flyweight</b> a single {@link Message} per thread, overwritten on every operation. Consumers cannot hold on to it, hence it is only applicable when messages
+ *         are handled synchronously</li>
+ *     </ul>
+ *     Every operation acquires a message, fills it in and hands it to a consumer. The last {@code inFlight} messages of each thread are kept alive before being released, to
+ *     mimic messages queued or being processed. The {@code payloadSize} separates small messages (a few primitive fields) from medium ones (carrying a {@code byte[]}).
+ * </p>
+ * <p>
+ *     {@link #main(String...)} runs the suite under G1, Parallel and ZGC, with the {@link GCProfiler} reporting the allocation rate and collections and the {@link HiccupProfiler}
+ *     reporting the stalls the collector imposed, and prints a summary per collector.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class PoolingBenchmark {
+
+    private static final String[] COLLECTORS = {"-XX:+UseG1GC", "-XX:+UseParallelGC", "-XX:+UseZGC"};
+
+    @Param({"0", "256"})
+    private int payloadSize;
+
+    private ObjectPool<Message> threadLocalPool;
+    private ObjectPool<Message> sharedPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.threadLocalPool = new ThreadLocalPool<>(2048, () -> new Message(this.payloadSize));
+        this.sharedPool = new MpmcRingPool<>(16384, () -> new Message(this.payloadSize));
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void allocate(final InFlight inFlight, final Blackhole blackhole) {
+        final Message message = new Message(this.payloadSize).set(inFlight.nextId(), 1, System.nanoTime());
+        blackhole.consume(message.checksum());
+        inFlight.hold(message);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void threadLocalPool(final InFlight inFlight, final Blackhole blackhole) {
+        final Message message = this.threadLocalPool.acquire().set(inFlight.nextId(), 1, System.nanoTime());
+        blackhole.consume(message.checksum());
+        release(this.threadLocalPool, inFlight.hold(message));
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void sharedPool(final InFlight inFlight, final Blackhole blackhole) {
+        final Message message = this.sharedPool.acquire().set(inFlight.nextId(), 1, System.nanoTime());
+        blackhole.consume(message.checksum());
+        release(this.sharedPool, inFlight.hold(message));
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void flyweight(final InFlight inFlight, final Blackhole blackhole) {
+        final Message message = inFlight.flyweight(this.payloadSize).set(inFlight.nextId(), 1, System.nanoTime());
+        blackhole.consume(message.checksum());
+    }
+
+    private static void release(final ObjectPool<Message> pool, final Message evicted) {
+        if (evicted != null) {
+            evicted.reset();
+            pool.release(evicted);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InFlight {
+
+        @Param({"1", "1024"})
+        private int inFlight;
+
+        private Message[] window;
+        private int cursor;
+        private long id;
+        private Message flyweight;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.window = new Message[this.inFlight];
+        }
+
+        long nextId() {
+            return this.id++;
+        }
+
+        /**
+         * @return the message evicted from the in flight window, if any
+         */
+        Message hold(final Message message) {
+            final Message evicted = this.window[this.cursor];
+            this.window[this.cursor] = message;
+            this.cursor = this.cursor + 1 == this.window.length ? 0 : this.cursor + 1;
+            return evicted;
+        }
+
+        Message flyweight(final int payloadSize) {
+            if (this.flyweight == null) {
+                this.flyweight = new Message(payloadSize);
+            }
+            return this.flyweight;
+        }
+    }
+
+    public static void main(final String... args) throws CommandLineOptionException, RunnerException {
+        final List<String> summary = new ArrayList<>();
+        summary.add(String.format("%-18s %-40s %8s %8s %12s %14s %10s %10s %12s", "GC", "Benchmark", "payload", "inFlight", "ops/us", "alloc MB/s", "gc.count",
+            "gc.time", "hiccup.max"));
+
+        for (final String collector : COLLECTORS) {
+            final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PoolingBenchmark.class.getSimpleName())
+                .forks(1)
+                .threads(4)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(HiccupProfiler.class)
+                .jvmArgsAppend(
+                    "-Xms1G",
+                    "-Xmx1G",
+                    "-XX:+UnlockExperimentalVMOptions",
+                    collector
+                )
+                .build();
+
+            final Collection<RunResult> results = new Runner(options).run();
+            for (final RunResult result : results) {
+                summary.add(String.format("%-18s %-40s %8s %8s %12.3f %14s %10s %10s %12s",
+                    collector,
+                    result.getParams().getBenchmark(),
+                    result.getParams().getParam("payloadSize"),
+                    result.getParams().getParam("inFlight"),
+                    result.getPrimaryResult().getScore(),
+                    secondary(result, "·gc.alloc.rate"),
+                    secondary(result, "·gc.count"),
+                    secondary(result, "·gc.time"),
+                    secondary(result, "·hiccup.max")));
+            }
+        }
+
+        summary.forEach(System.out::println);
+    }
+
+    private static String secondary(final RunResult result, final String label) {
+        final Result secondary = result.getSecondaryResults().get(label);
+        return secondary == null ? "-" : String.format("%.3f", secondary.getScore());
+    }
+}
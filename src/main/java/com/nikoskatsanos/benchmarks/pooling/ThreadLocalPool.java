@@ -0,0 +1,46 @@
+package com.nikoskatsanos.benchmarks.pooling;
+
+import java.util.function.Supplier;
+
+/**
+ * A pool per thread, backed by an array based stack. Acquiring and releasing involve no synchronization, but an instance released by a thread other than the one that acquired
+ * it ends up in the releasing thread's pool
+ */
+public class ThreadLocalPool<T> implements ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<Stack> stack;
+
+    public ThreadLocalPool(final int capacity, final Supplier<T> factory) {
+        this.factory = factory;
+        this.stack = ThreadLocal.withInitial(() -> new Stack(capacity));
+    }
+
+    @Override
+    public T acquire() {
+        final Stack stack = this.stack.get();
+        if (stack.size == 0) {
+            return this.factory.get();
+        }
+        @SuppressWarnings("unchecked") final T instance = (T) stack.items[--stack.size];
+        stack.items[stack.size] = null;
+        return instance;
+    }
+
+    @Override
+    public void release(final T instance) {
+        final Stack stack = this.stack.get();
+        if (stack.size < stack.items.length) {
+            stack.items[stack.size++] = instance;
+        }
+    }
+
+    private static class Stack {
+        private final Object[] items;
+        private int size;
+
+        Stack(final int capacity) {
+            this.items = new Object[capacity];
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * The compilations, inlining decisions and deoptimizations of a JVM, as parsed from the XML written by {@code -XX:+UnlockDiagnosticVMOptions -XX:+LogCompilation
+ * -XX:LogFile=<file>}
+ * <p>
+ *     The log is streamed, hence logs of any size (i.e. including {@code -XX:+PrintAssembly} output) can be parsed. A log cut short, i.e. by a JVM that crashed or was killed,
+ *     is parsed up to the point it was cut, see {@link #isTruncated()}.
+ * </p>
+ * <p>
+ *     Methods are named as {@code <fully qualified class>::<method>}.
+ * </p>
+ */
+public class CompilationLog {
+
+    private final Map<Integer, Compilation> compilations = new LinkedHashMap<>();
+    private final List<Deoptimization> deoptimizations = new ArrayList<>();
+    private boolean truncated;
+
+    private CompilationLog() {
+    }
+
+    public static CompilationLog parse(final Path file) throws IOException {
+        final CompilationLog log = new CompilationLog();
+        try (final InputStream in = Files.newInputStream(file)) {
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            final SAXParser parser = factory.newSAXParser();
+            parser.parse(in, log.new Handler());
+        } catch (final SAXParseException e) {
+            log.truncated = true;
+        } catch (final SAXException | ParserConfigurationException e) {
+            throw new IOException("Cannot parse compilation log " + file, e);
+        }
+        return log;
+    }
+
+    public Collection<Compilation> getCompilations() {
+        return this.compilations.values();
+    }
+
+    public List<Deoptimization> getDeoptimizations() {
+        return this.deoptimizations;
+    }
+
+    /**
+     * @return whether the log ended abruptly or was malformed, in which case only the part preceding that point was parsed
+     */
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    private Compilation compilation(final Attributes attributes) {
+        return this.compilations.computeIfAbsent(Integer.parseInt(attributes.getValue("compile_id")), Compilation::new);
+    }
+
+    /**
+     * @return {@code java.lang.String::startsWith} out of {@code java.lang.String startsWith (Ljava/lang/String;I)Z}
+     */
+    static String methodName(final String logMethod) {
+        final String[] parts = logMethod.split(" ");
+        return parts.length < 2 ? logMethod : parts[0] + "::" + parts[1];
+    }
+
+    private static int intAttribute(final Attributes attributes, final String name) {
+        final String value = attributes.getValue(name);
+        return value == null ? 0 : (int) Double.parseDouble(value);
+    }
+
+    /**
+     * A compilation of a method by a JIT compiler, either a standard one or an on-stack-replacement (OSR) of a running loop
+     */
+    public static class Compilation {
+
+        private final int id;
+        private final List<InlineDecision> inlineDecisions = new ArrayList<>();
+        private String method;
+        private String compiler;
+        private int level;
+        private boolean osr;
+        private int bytecodeSize;
+        private int codeSize;
+        private int inlinedBytes;
+        private boolean success = true;
+        private boolean madeNotEntrant;
+
+        Compilation(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getMethod() {
+            return this.method;
+        }
+
+        /**
+         * @return {@code c1} or {@code c2} (or {@code jvmci}), {@code null} if the compilation did not complete
+         */
+        public String getCompiler() {
+            return this.compiler;
+        }
+
+        /**
+         * @return the tier of a tiered compilation, {@code 0} if not tiered
+         */
+        public int getLevel() {
+            return this.level;
+        }
+
+        public boolean isOsr() {
+            return this.osr;
+        }
+
+        public int getBytecodeSize() {
+            return this.bytecodeSize;
+        }
+
+        /**
+         * @return the size of the generated machine code in bytes, excluding stubs, relocation and debug info
+         */
+        public int getCodeSize() {
+            return this.codeSize;
+        }
+
+        /**
+         * @return the bytecode size of all methods inlined into this compilation
+         */
+        public int getInlinedBytes() {
+            return this.inlinedBytes;
+        }
+
+        public boolean isSuccess() {
+            return this.success;
+        }
+
+        /**
+         * @return whether the compiled code was invalidated, i.e. following a deoptimization or a recompilation
+         */
+        public boolean isMadeNotEntrant() {
+            return this.madeNotEntrant;
+        }
+
+        public List<InlineDecision> getInlineDecisions() {
+            return this.inlineDecisions;
+        }
+    }
+
+    /**
+     * The decision of a compiler to inline a call, or not
+     */
+    public static class InlineDecision {
+
+        private final int depth;
+        private final String path;
+        private final String callee;
+        private final int calleeBytes;
+        private final boolean inlined;
+        private final String reason;
+
+        InlineDecision(final int depth, final String path, final String callee, final int calleeBytes, final boolean inlined, final String reason) {
+            this.depth = depth;
+            this.path = path;
+            this.callee = callee;
+            this.calleeBytes = calleeBytes;
+            this.inlined = inlined;
+            this.reason = reason;
+        }
+
+        /**
+         * @return {@code 1} for calls made directly by the compiled method, {@code 2} for calls made by the methods inlined into it and so on
+         */
+        public int getDepth() {
+            return this.depth;
+        }
+
+        /**
+         * @return the chain of inlined methods leading to the call, i.e. to tell apart repeated parsing of the same call site
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        public String getCallee() {
+            return this.callee;
+        }
+
+        public int getCalleeBytes() {
+            return this.calleeBytes;
+        }
+
+        public boolean isInlined() {
+            return this.inlined;
+        }
+
+        /**
+         * @return the compiler's reason, i.e. {@code inline (hot)}, {@code too big}, {@code hot method too big}, {@code virtual call (megamorphic ...)}
+         */
+        public String getReason() {
+            return this.reason;
+        }
+    }
+
+    /**
+     * A compiled method falling back to the interpreter, as compiled code hit a case it was not compiled for (i.e. a branch never taken or a new receiver type)
+     */
+    public static class Deoptimization {
+
+        private final int compilationId;
+        private final String reason;
+        private final String action;
+        private String method;
+        private int bci;
+
+        Deoptimization(final int compilationId, final String reason, final String action) {
+            this.compilationId = compilationId;
+            this.reason = reason;
+            this.action = action;
+        }
+
+        /**
+         * @return the id of the {@link Compilation} deoptimized
+         */
+        public int getCompilationId() {
+            return this.compilationId;
+        }
+
+        /**
+         * @return i.e. {@code unstable_if}, {@code class_check}, {@code null_check}
+         */
+        public String getReason() {
+            return this.reason;
+        }
+
+        /**
+         * @return what the JVM did about it, i.e. {@code reinterpret} (invalidate and recompile later), {@code maybe_recompile}, {@code none}
+         */
+        public String getAction() {
+            return this.action;
+        }
+
+        /**
+         * @return the (possibly inlined) method the deoptimization took place in, {@code null} if unknown
+         */
+        public String getMethod() {
+            return this.method;
+        }
+
+        public int getBci() {
+            return this.bci;
+        }
+    }
+
+    private class Handler extends DefaultHandler {
+
+        private final Map<String, String> klasses = new HashMap<>();
+        private final Map<String, String> methods = new HashMap<>();
+        private final Map<String, Integer> methodBytes = new HashMap<>();
+        private final Deque<String> parsePaths = new ArrayDeque<>();
+
+        private Compilation task;
+        private Attributes pendingCall;
+        private Deoptimization pendingDeoptimization;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+            switch (qName) {
+                case "task":
+                    this.task = compilation(attributes);
+                    this.task.method = methodName(attributes.getValue("method"));
+                    this.task.osr = "osr".equals(attributes.getValue("compile_kind"));
+                    this.task.bytecodeSize = intAttribute(attributes, "bytes");
+                    this.parsePaths.clear();
+                    break;
+                case "klass":
+                    this.klasses.put(attributes.getValue("id"), attributes.getValue("name"));
+                    break;
+                case "method":
+                    this.methods.put(attributes.getValue("id"), this.klasses.get(attributes.getValue("holder")) + "::" + attributes.getValue("name"));
+                    this.methodBytes.put(attributes.getValue("id"), intAttribute(attributes, "bytes"));
+                    break;
+                case "parse":
+                    final String parsed = this.methods.get(attributes.getValue("method"));
+                    this.parsePaths.push(this.parsePaths.isEmpty() ? parsed : this.parsePaths.peek() + "/" + parsed);
+                    break;
+                case "call":
+                    // copied, as SAX reuses the attributes instance
+                    this.pendingCall = new AttributesImpl(attributes);
+                    break;
+                case "inline_success":
+                case "inline_fail":
+                    this.inlineDecision("inline_success".equals(qName), attributes.getValue("reason"));
+                    break;
+                case "task_done":
+                    if (this.task != null) {
+                        this.task.success = "1".equals(attributes.getValue("success"));
+                        this.task.inlinedBytes = intAttribute(attributes, "inlined_bytes");
+                    }
+                    break;
+                case "nmethod":
+                    final Compilation compiled = compilation(attributes);
+                    compiled.method = methodName(attributes.getValue("method"));
+                    compiled.compiler = attributes.getValue("compiler");
+                    compiled.level = intAttribute(attributes, "level");
+                    compiled.osr = "osr".equals(attributes.getValue("compile_kind"));
+                    compiled.bytecodeSize = intAttribute(attributes, "bytes");
+                    compiled.codeSize = intAttribute(attributes, "stub_offset") - intAttribute(attributes, "insts_offset");
+                    break;
+                case "make_not_entrant":
+                    compilation(attributes).madeNotEntrant = true;
+                    break;
+                case "uncommon_trap":
+                case "deoptimized":
+                    // traps with a thread took place at runtime, the ones without are the traps a compiler planted while compiling
+                    if (attributes.getValue("thread") != null && attributes.getValue("compile_id") != null) {
+                        this.pendingDeoptimization = new Deoptimization(Integer.parseInt(attributes.getValue("compile_id")), attributes.getValue("reason"),
+                            attributes.getValue("action"));
+                        deoptimizations.add(this.pendingDeoptimization);
+                    }
+                    break;
+                case "jvms":
+                    // the first frame is the innermost, the method the deoptimization actually took place in
+                    if (this.pendingDeoptimization != null && this.pendingDeoptimization.method == null) {
+                        this.pendingDeoptimization.method = methodName(attributes.getValue("method"));
+                        this.pendingDeoptimization.bci = intAttribute(attributes, "bci");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            switch (qName) {
+                case "task":
+                    this.task = null;
+                    this.pendingCall = null;
+                    break;
+                case "parse":
+                    if (!this.parsePaths.isEmpty()) {
+                        this.parsePaths.pop();
+                    }
+                    break;
+                case "uncommon_trap":
+                case "deoptimized":
+                    this.pendingDeoptimization = null;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void inlineDecision(final boolean inlined, final String reason) {
+            if (this.task == null || this.pendingCall == null || this.parsePaths.isEmpty()) {
+                return;
+            }
+            final String calleeId = this.pendingCall.getValue("method");
+            final String callee = this.methods.get(calleeId);
+            final String caller = this.parsePaths.peek();
+            this.task.inlineDecisions.add(new InlineDecision(this.parsePaths.size(), caller + "/" + callee, callee, this.methodBytes.getOrDefault(calleeId, 0), inlined,
+                inlined ? reason : this.describeFailure(reason)));
+            this.pendingCall = null;
+        }
+
+        /**
+         * C2 reports a megamorphic call site as a plain {@code virtual call}, the receiver profile of the call tells it apart from a call with no profile at all
+         */
+        private String describeFailure(final String reason) {
+            if (!"virtual call".equals(reason)) {
+                return reason;
+            }
+            final int count = intAttribute(this.pendingCall, "count");
+            int receivers = 0;
+            int profiled = 0;
+            for (final String receiver : new String[]{"receiver", "receiver2"}) {
+                if (this.pendingCall.getValue(receiver) != null) {
+                    receivers++;
+                    profiled += intAttribute(this.pendingCall, receiver + "_count");
+                }
+            }
+            if (receivers == 0 || count <= 0) {
+                return reason + " (no receiver profile)";
+            }
+            return profiled < count ? String.format("%s (megamorphic, %d profiled receivers cover %d%% of calls)", reason, receivers, (int) (100L * profiled / count))
+                : reason;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import com.nikoskatsanos.benchmarks.profile.CompilationLog.Compilation;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.ExternalProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * A JMH profiler enabling {@code -XX:+LogCompilation} on every fork and reporting, out of the log, how the benchmark was compiled, see {@link CompilationReport}:
+ * <ul>
+ *     <li>the compilations of the {@code @Benchmark} method and of the JMH stub running it in the measurement loop, with their machine code size</li>
+ *     <li>the inlining tree of their final compilation, with the compiler's reason for every call inlined or not</li>
+ *     <li>their deoptimizations</li>
+ * </ul>
+ * The report of every fork is printed along the benchmark's results. The machine code size of the stub's final compilation ({@code ·compilation.code}) and the number of
+ * deoptimizations ({@code ·compilation.deopts}) are also reported as secondary results. The logs are kept, for {@link CompilationReport} or JITWatch.
+ * <h2>Usage</h2>
+ * {@code -prof com.nikoskatsanos.benchmarks.profile.CompilationProfiler[:dir=<dir>;depth=<n>]}
+ * <ul>
+ *     <li><b>dir</b> the directory the compilation logs are written to, {@code compilation-logs} if omitted</li>
+ *     <li><b>depth</b> the deepest inlining decisions reported, {@code 4} if omitted</li>
+ * </ul>
+ */
+public class CompilationProfiler implements ExternalProfiler {
+
+    private final Path dir;
+    private final int depth;
+
+    public CompilationProfiler() throws ProfilerException {
+        this("");
+    }
+
+    public CompilationProfiler(final String initLine) throws ProfilerException {
+        final Map<String, String> options = ProfilerOptions.parse(initLine);
+        this.dir = Paths.get(options.getOrDefault("dir", "compilation-logs")).toAbsolutePath();
+        this.depth = ProfilerOptions.intOption(options, "depth", 4);
+    }
+
+    @Override
+    public String getDescription() {
+        return "LogCompilation report: compiled size, inlining decisions and deoptimizations of the benchmark";
+    }
+
+    @Override
+    public Collection<String> addJVMInvokeOptions(final BenchmarkParams params) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> addJVMOptions(final BenchmarkParams params) {
+        // appended after the benchmark's own JVM arguments, hence overriding any LogFile given there. HotSpot replaces %p with pid<pid>
+        return Arrays.asList("-XX:+UnlockDiagnosticVMOptions", "-XX:+LogCompilation", "-XX:LogFile=" + this.logFile(params, "%p"));
+    }
+
+    @Override
+    public void beforeTrial(final BenchmarkParams params) {
+        try {
+            Files.createDirectories(this.dir);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterTrial(final BenchmarkResult benchmarkResult, final long pid, final File stdOut, final File stdErr) {
+        final BenchmarkParams params = benchmarkResult.getParams();
+        final Path file = this.logFile(params, "pid" + pid);
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+
+        final CompilationLog log;
+        try {
+            log = CompilationLog.parse(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final CompilationReport report = new CompilationReport(log, benchmarkMethods(params.getBenchmark()), this.depth);
+
+        final List<Result> results = new ArrayList<>();
+        results.add(new CompilationResult(String.format("Compilation of fork with pid %d (%s)\n%s", pid, file, report)));
+        results.add(new ScalarResult("·compilation.deopts", report.deoptimizations().size(), "counts", AggregationPolicy.AVG));
+        for (final Map.Entry<String, List<Compilation>> method : report.compilations().entrySet()) {
+            final Compilation last = CompilationReport.finalCompilation(method.getValue());
+            if (method.getKey().endsWith("_jmhStub") && last != null) {
+                results.add(new ScalarResult("·compilation.code", last.getCodeSize(), "bytes", AggregationPolicy.AVG));
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return a filter of the {@code @Benchmark} method and its generated JMH class, i.e. {@code pkg.Foo::bar} and {@code pkg.generated.Foo_bar_jmhTest::bar_thrpt_jmhStub}
+     * for {@code pkg.Foo.bar}
+     */
+    static Predicate<String> benchmarkMethods(final String benchmark) {
+        final int methodSeparator = benchmark.lastIndexOf('.');
+        final String benchmarkClass = benchmark.substring(0, methodSeparator);
+        final String benchmarkMethod = benchmark.substring(methodSeparator + 1);
+        final int packageSeparator = benchmarkClass.lastIndexOf('.');
+        final String generatedClass = benchmarkClass.substring(0, packageSeparator + 1) + "generated." + benchmarkClass.substring(packageSeparator + 1) + "_" + benchmarkMethod
+            + "_jmhTest";
+        return method -> method.equals(benchmarkClass + "::" + benchmarkMethod) || method.startsWith(generatedClass + "::");
+    }
+
+    private Path logFile(final BenchmarkParams params, final String pid) {
+        return this.dir.resolve(String.format("%s-%s-%s.log", JfrProfiler.fileName(params), params.getMode().shortLabel(), pid));
+    }
+
+    @Override
+    public boolean allowPrintOut() {
+        return true;
+    }
+
+    @Override
+    public boolean allowPrintErr() {
+        return true;
+    }
+}
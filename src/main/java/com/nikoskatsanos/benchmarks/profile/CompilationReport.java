@@ -0,0 +1,189 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import com.nikoskatsanos.benchmarks.profile.CompilationLog.Compilation;
+import com.nikoskatsanos.benchmarks.profile.CompilationLog.Deoptimization;
+import com.nikoskatsanos.benchmarks.profile.CompilationLog.InlineDecision;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A human readable report of the JIT compilation of selected methods, out of a {@link CompilationLog}:
+ * <ul>
+ *     <li>every compilation of the method, with its compiler, bytecode size, machine code size and whether it was invalidated later on</li>
+ *     <li>the inlining tree of the method's final compilation, with the compiler's reason for every call inlined or not (i.e. {@code too big}, {@code hot method too big},
+ *     {@code virtual call (megamorphic ...)})</li>
+ *     <li>the deoptimizations of the method's compilations, with the method (possibly inlined) and bytecode index they took place at</li>
+ * </ul>
+ * <h2>Usage</h2>
+ * <pre>
+ *     {@code
+ *      CompilationReport <log file> [<method regex>] [<max inlining depth>]
+ *     }
+ * </pre>
+ * Methods are matched as {@code <fully qualified class>::<method>}. If omitted, the methods reported are JMH's generated stubs, hence the {@code @Benchmark} methods (which JMH
+ * forces to be inlined into them) as compiled in the measurement loop.
+ */
+public class CompilationReport {
+
+    private static final String JMH_STUBS = ".*_jmhTest::.*_jmhStub";
+
+    private final CompilationLog log;
+    private final Predicate<String> methods;
+    private final int maxDepth;
+
+    /**
+     * @param methods  the methods to report, by {@code <fully qualified class>::<method>}
+     * @param maxDepth the deepest inlining decisions to report, {@code 1} for the calls made directly by a method
+     */
+    public CompilationReport(final CompilationLog log, final Predicate<String> methods, final int maxDepth) {
+        this.log = log;
+        this.methods = methods;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return the compilations of the selected methods, grouped by method, in the order the methods were first compiled
+     */
+    public Map<String, List<Compilation>> compilations() {
+        final Map<String, List<Compilation>> compilations = new LinkedHashMap<>();
+        for (final Compilation compilation : this.log.getCompilations()) {
+            if (compilation.getMethod() != null && this.methods.test(compilation.getMethod())) {
+                compilations.computeIfAbsent(compilation.getMethod(), method -> new ArrayList<>()).add(compilation);
+            }
+        }
+        return compilations;
+    }
+
+    /**
+     * @return the last successful compilation, preferring a standard compilation over an OSR one as the code the method ends up running, {@code null} if none
+     */
+    public static Compilation finalCompilation(final List<Compilation> compilations) {
+        Compilation last = null;
+        for (final Compilation compilation : compilations) {
+            if (compilation.isSuccess() && compilation.getCompiler() != null && (last == null || !compilation.isOsr() || last.isOsr())) {
+                last = compilation;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return the deoptimizations of the selected methods' compilations
+     */
+    public List<Deoptimization> deoptimizations() {
+        final Set<Integer> ids = new HashSet<>();
+        this.compilations().values().forEach(compilations -> compilations.forEach(compilation -> ids.add(compilation.getId())));
+        final List<Deoptimization> deoptimizations = new ArrayList<>();
+        for (final Deoptimization deoptimization : this.log.getDeoptimizations()) {
+            if (ids.contains(deoptimization.getCompilationId())) {
+                deoptimizations.add(deoptimization);
+            }
+        }
+        return deoptimizations;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        int failed = 0;
+        int notEntrant = 0;
+        for (final Compilation compilation : this.log.getCompilations()) {
+            failed += compilation.isSuccess() ? 0 : 1;
+            notEntrant += compilation.isMadeNotEntrant() ? 1 : 0;
+        }
+        builder.append(String.format("%d compilations (%d failed, %d made not entrant), %d deoptimizations%s\n", this.log.getCompilations().size(), failed, notEntrant,
+            this.log.getDeoptimizations().size(), this.log.isTruncated() ? ", log truncated" : ""));
+
+        final Map<String, List<Compilation>> compilations = this.compilations();
+        if (compilations.isEmpty()) {
+            builder.append("\n  No compilation of the selected methods\n");
+        }
+        for (final Map.Entry<String, List<Compilation>> method : compilations.entrySet()) {
+            builder.append("\n  ").append(method.getKey()).append('\n');
+            for (final Compilation compilation : method.getValue()) {
+                builder.append("    ").append(describe(compilation)).append('\n');
+            }
+
+            final Compilation last = finalCompilation(method.getValue());
+            if (last != null) {
+                builder.append("    Inlining of #").append(last.getId()).append(":\n");
+                this.appendInlining(builder, last);
+            }
+        }
+
+        final List<Deoptimization> deoptimizations = this.deoptimizations();
+        builder.append("\n  Deoptimizations:\n");
+        if (deoptimizations.isEmpty()) {
+            builder.append("    <none>\n");
+        }
+        for (final Deoptimization deoptimization : deoptimizations) {
+            builder.append(String.format("    #%-5d %s, %s at %s @ %d\n", deoptimization.getCompilationId(), deoptimization.getReason(), deoptimization.getAction(),
+                deoptimization.getMethod() == null ? "<unknown>" : shortName(deoptimization.getMethod()), deoptimization.getBci()));
+        }
+        return builder.toString();
+    }
+
+    private static String describe(final Compilation compilation) {
+        if (compilation.getCompiler() == null) {
+            return String.format("#%-5d %s%s", compilation.getId(), compilation.isSuccess() ? "not installed" : "failed", compilation.isOsr() ? " (osr)" : "");
+        }
+        return String.format("#%-5d %s%s%s %5d bytes of bytecode -> %6d bytes of code, %5d bytes inlined%s", compilation.getId(), compilation.getCompiler(),
+            compilation.getLevel() > 0 ? " tier " + compilation.getLevel() : "", compilation.isOsr() ? " (osr)" : "", compilation.getBytecodeSize(),
+            compilation.getCodeSize(), compilation.getInlinedBytes(), compilation.isMadeNotEntrant() ? ", made not entrant" : "");
+    }
+
+    private void appendInlining(final StringBuilder builder, final Compilation compilation) {
+        // C2 parses some call sites more than once (i.e. loops peeled or unswitched), reported once
+        final Set<String> reported = new HashSet<>();
+        int hidden = 0;
+        for (final InlineDecision decision : compilation.getInlineDecisions()) {
+            if (!reported.add(decision.getPath() + decision.isInlined() + decision.getReason())) {
+                continue;
+            }
+            if (decision.getDepth() > this.maxDepth) {
+                hidden++;
+                continue;
+            }
+            builder.append("      ");
+            for (int i = 1; i < decision.getDepth(); i++) {
+                builder.append("  ");
+            }
+            builder.append(decision.isInlined() ? "+ " : "- ").append(shortName(decision.getCallee())).append(" (").append(decision.getCalleeBytes()).append(" bytes) ")
+                .append(decision.getReason()).append('\n');
+        }
+        if (compilation.getInlineDecisions().isEmpty()) {
+            builder.append("      <no calls>\n");
+        }
+        if (hidden > 0) {
+            builder.append("      ... ").append(hidden).append(" decisions deeper than ").append(this.maxDepth).append(" not shown\n");
+        }
+    }
+
+    /**
+     * @return the method without its package, i.e. {@code String::startsWith}
+     */
+    private static String shortName(final String method) {
+        final int separator = method.indexOf("::");
+        final int lastDot = method.lastIndexOf('.', separator < 0 ? method.length() : separator);
+        return method.substring(lastDot + 1);
+    }
+
+    public static void main(final String... args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CompilationReport <log file> [<method regex>] [<max inlining depth>]");
+            System.exit(1);
+        }
+        final Pattern methods = Pattern.compile(args.length > 1 ? args[1] : JMH_STUBS);
+        final int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : Integer.MAX_VALUE;
+
+        System.out.print(new CompilationReport(CompilationLog.parse(Paths.get(args[0])), method -> methods.matcher(method).matches(), maxDepth));
+    }
+}
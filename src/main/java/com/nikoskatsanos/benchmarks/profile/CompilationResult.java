@@ -0,0 +1,55 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.Aggregator;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ResultRole;
+
+/**
+ * The {@link CompilationReport}s of a benchmark's forks, printed as the extended info of the benchmark's results
+ */
+public class CompilationResult extends Result<CompilationResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> reports;
+
+    public CompilationResult(final String report) {
+        this(Collections.singletonList(report));
+    }
+
+    private CompilationResult(final List<String> reports) {
+        super(ResultRole.SECONDARY, "·compilation", of(Double.NaN), "---", AggregationPolicy.AVG);
+        this.reports = reports;
+    }
+
+    @Override
+    protected Aggregator<CompilationResult> getThreadAggregator() {
+        return CompilationResult::merge;
+    }
+
+    @Override
+    protected Aggregator<CompilationResult> getIterationAggregator() {
+        return CompilationResult::merge;
+    }
+
+    private static CompilationResult merge(final Collection<CompilationResult> results) {
+        final List<String> reports = new ArrayList<>();
+        results.forEach(result -> reports.addAll(result.reports));
+        return new CompilationResult(reports);
+    }
+
+    @Override
+    public String toString() {
+        return "<see below>";
+    }
+
+    @Override
+    public String extendedInfo() {
+        return String.join("\n", this.reports);
+    }
+}
@@ -0,0 +1,243 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * A JMH profiler recording every measurement iteration with <a href="https://docs.oracle.com/en/java/javase/14/jfapi/">JDK Flight Recorder</a>, hence giving usable profiles on
+ * any OS, without {@code perf}, {@code dtrace} or {@code hsdis}
+ * <p>
+ *     Warmup iterations are not recorded. Only the activity of JMH's worker threads is summarized, safepoints aside as they stop all threads. After each measurement iteration the recording is dumped to a {@code .jfr} file, kept for later analysis (i.e. with JDK Mission
+ *     Control or {@code jfr print}), and summarized into:
+ *     <ul>
+ *         <li>the hottest methods, by execution samples of their top frame</li>
+ *         <li>the classes allocated the most, by JFR's allocation sampling</li>
+ *         <li>the classes contended on, by time blocked entering their monitor or parked on them</li>
+ *         <li>the number of safepoints and the time spent in them</li>
+ *     </ul>
+ *     The summary of all measurement iterations is printed along the benchmark's results, while the contention and safepoint totals are also reported as secondary results.
+ * </p>
+ * <h2>Usage</h2>
+ * {@code -prof com.nikoskatsanos.benchmarks.profile.JfrProfiler[:dir=<dir>;top=<n>;period=<ms>;lockThreshold=<us>]}
+ * <ul>
+ *     <li><b>dir</b> the directory the {@code .jfr} files are written to, {@code jfr-profiles} if omitted</li>
+ *     <li><b>top</b> the number of entries printed per category, {@code 10} if omitted</li>
+ *     <li><b>period</b> the execution sampling period in millis, {@code 10} if omitted</li>
+ *     <li><b>lockThreshold</b> monitor enters and parks shorter than this (in micros) are not recorded, {@code 10} if omitted</li>
+ * </ul>
+ */
+public class JfrProfiler implements InternalProfiler {
+
+    private final Path dir;
+    private final int top;
+    private final Duration samplingPeriod;
+    private final Duration lockThreshold;
+
+    private Recording recording;
+    private int iteration;
+
+    public JfrProfiler() throws ProfilerException {
+        this("");
+    }
+
+    public JfrProfiler(final String initLine) throws ProfilerException {
+        final Map<String, String> options = ProfilerOptions.parse(initLine);
+        this.dir = Paths.get(options.getOrDefault("dir", "jfr-profiles"));
+        this.top = ProfilerOptions.intOption(options, "top", 10);
+        this.samplingPeriod = Duration.ofMillis(ProfilerOptions.intOption(options, "period", 10));
+        this.lockThreshold = Duration.ofNanos(ProfilerOptions.intOption(options, "lockThreshold", 10) * 1_000L);
+    }
+
+    @Override
+    public String getDescription() {
+        return "JFR recording of measurement iterations: hot methods, allocations, lock contention and safepoints";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+        if (iterationParams.getType() != IterationType.MEASUREMENT) {
+            return;
+        }
+        try {
+            this.recording = new Recording(Configuration.getConfiguration("profile"));
+        } catch (final IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR's profile configuration", e);
+        }
+        this.recording.setName("jmh-" + benchmarkParams.getBenchmark());
+        this.recording.enable("jdk.ExecutionSample").withPeriod(this.samplingPeriod);
+        this.recording.enable("jdk.JavaMonitorEnter").withThreshold(this.lockThreshold).withStackTrace();
+        this.recording.enable("jdk.ThreadPark").withThreshold(this.lockThreshold).withStackTrace();
+        this.recording.enable("jdk.SafepointBegin");
+        this.recording.enable("jdk.SafepointEnd");
+        this.recording.start();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        if (this.recording == null) {
+            return new ArrayList<>();
+        }
+        this.recording.stop();
+        final Path file = this.dir.resolve(String.format("%s-%s-pid%d-iter%d.jfr", fileName(benchmarkParams), benchmarkParams.getMode().shortLabel(),
+            ProcessHandle.current().pid(), this.iteration++));
+        try {
+            Files.createDirectories(this.dir);
+            this.recording.dump(file);
+            return this.summarize(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.recording.close();
+            this.recording = null;
+        }
+    }
+
+    private List<Result> summarize(final Path file) throws IOException {
+        final Map<String, Long> hotMethods = new TreeMap<>();
+        final Map<String, Long> sampledAllocations = new TreeMap<>();
+        final Map<String, Long> tlabAllocations = new TreeMap<>();
+        final Map<String, Long> contention = new TreeMap<>();
+        final Map<Long, Long> safepointStarts = new HashMap<>();
+        final Set<Long> sampledThreads = new HashSet<>();
+        long safepoints = 0;
+        long safepointNanos = 0;
+        long contentionNanos = 0;
+
+        for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            final String type = event.getEventType().getName();
+            if (!type.startsWith("jdk.Safepoint") && !isWorkerThread(event)) {
+                continue;
+            }
+            switch (type) {
+                case "jdk.ExecutionSample":
+                    if (event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+                        final RecordedFrame frame = event.getStackTrace().getFrames().get(0);
+                        hotMethods.merge(methodName(frame.getMethod()), 1L, Long::sum);
+                    }
+                    break;
+                case "jdk.ObjectAllocationSample":
+                    // a thread's first sample is weighted with everything it allocated since its previous sample, before the recording started
+                    if (!sampledThreads.add(event.getThread().getJavaThreadId())) {
+                        sampledAllocations.merge(className(event.getClass("objectClass")), event.getLong("weight"), Long::sum);
+                    }
+                    break;
+                case "jdk.ObjectAllocationInNewTLAB":
+                    tlabAllocations.merge(className(event.getClass("objectClass")), event.getLong("tlabSize"), Long::sum);
+                    break;
+                case "jdk.ObjectAllocationOutsideTLAB":
+                    tlabAllocations.merge(className(event.getClass("objectClass")), event.getLong("allocationSize"), Long::sum);
+                    break;
+                case "jdk.JavaMonitorEnter":
+                    if (!isBenchmarkCode(event)) {
+                        break;
+                    }
+                    contention.merge("monitor " + className(event.getClass("monitorClass")), event.getDuration().toNanos(), Long::sum);
+                    contentionNanos += event.getDuration().toNanos();
+                    break;
+                case "jdk.ThreadPark":
+                    if (!isBenchmarkCode(event)) {
+                        break;
+                    }
+                    contention.merge("park " + className(event.getClass("parkedClass")), event.getDuration().toNanos(), Long::sum);
+                    contentionNanos += event.getDuration().toNanos();
+                    break;
+                case "jdk.SafepointBegin":
+                    safepointStarts.put(event.getLong("safepointId"), toNanos(event.getStartTime()));
+                    safepoints++;
+                    break;
+                case "jdk.SafepointEnd":
+                    final Long start = safepointStarts.remove(event.getLong("safepointId"));
+                    if (start != null) {
+                        safepointNanos += toNanos(event.getEndTime()) - start;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // allocation sampling (JDK 16+) is weighted to represent all allocations, TLAB events are only available as a fallback on older JDKs
+        final Map<String, Long> allocations = sampledAllocations.isEmpty() ? tlabAllocations : sampledAllocations;
+
+        final List<Result> results = new ArrayList<>();
+        results.add(new JfrResult(hotMethods, allocations, contention, safepoints, safepointNanos, this.top));
+        results.add(new ScalarResult("·jfr.safepoint.count", safepoints, "counts", AggregationPolicy.SUM));
+        results.add(new ScalarResult("·jfr.safepoint.time", safepointNanos / 1_000_000D, "ms", AggregationPolicy.SUM));
+        results.add(new ScalarResult("·jfr.contention.time", contentionNanos / 1_000_000D, "ms", AggregationPolicy.SUM));
+        return results;
+    }
+
+    static String fileName(final BenchmarkParams params) {
+        final StringBuilder builder = new StringBuilder(params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.', params.getBenchmark().lastIndexOf('.') - 1) + 1));
+        for (final String key : params.getParamsKeys()) {
+            builder.append('-').append(key).append('=').append(params.getParam(key));
+        }
+        return builder.toString().replaceAll("[^A-Za-z0-9=._-]", "_");
+    }
+
+    /**
+     * @return whether the event took place in one of JMH's worker threads, as opposed to the JMH or JFR infrastructure
+     */
+    private static boolean isWorkerThread(final RecordedEvent event) {
+        final RecordedThread thread = event.hasField("sampledThread") ? event.getThread("sampledThread") : event.getThread();
+        return thread != null && thread.getJavaName() != null && thread.getJavaName().contains("jmh-worker");
+    }
+
+    /**
+     * @return whether the event took place within the benchmark method, as opposed to i.e. the worker waiting for the next iteration
+     */
+    private static boolean isBenchmarkCode(final RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (final RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod() != null && frame.getMethod().getType().getName().endsWith("_jmhTest")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String methodName(final RecordedMethod method) {
+        return method == null ? "<unknown>" : method.getType().getName() + "." + method.getName();
+    }
+
+    private static String className(final RecordedClass recordedClass) {
+        return recordedClass == null ? "<unknown>" : recordedClass.getName();
+    }
+
+    private static long toNanos(final Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
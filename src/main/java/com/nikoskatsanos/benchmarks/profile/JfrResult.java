@@ -0,0 +1,110 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.LongToDoubleFunction;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.Aggregator;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ResultRole;
+
+/**
+ * The summary of the JFR recordings of a benchmark's measurement iterations, printed as the extended info of the benchmark's results
+ */
+public class JfrResult extends Result<JfrResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Long> hotMethods;
+    private final Map<String, Long> allocations;
+    private final Map<String, Long> contention;
+    private final long safepoints;
+    private final long safepointNanos;
+    private final int top;
+
+    /**
+     * @param hotMethods  execution samples by top frame method
+     * @param allocations bytes allocated (as estimated by JFR's sampling) by class
+     * @param contention  nanos blocked on monitors or parked, by monitor/parked class
+     * @param safepoints  the number of safepoints
+     * @param safepointNanos the total time spent in safepoints, from the start of their synchronization to their end
+     * @param top         the number of entries to print per category
+     */
+    public JfrResult(final Map<String, Long> hotMethods, final Map<String, Long> allocations, final Map<String, Long> contention, final long safepoints,
+        final long safepointNanos, final int top) {
+        super(ResultRole.SECONDARY, "·jfr", of(Double.NaN), "---", AggregationPolicy.AVG);
+        this.hotMethods = hotMethods;
+        this.allocations = allocations;
+        this.contention = contention;
+        this.safepoints = safepoints;
+        this.safepointNanos = safepointNanos;
+        this.top = top;
+    }
+
+    @Override
+    protected Aggregator<JfrResult> getThreadAggregator() {
+        return JfrResult::merge;
+    }
+
+    @Override
+    protected Aggregator<JfrResult> getIterationAggregator() {
+        return JfrResult::merge;
+    }
+
+    private static JfrResult merge(final Collection<JfrResult> results) {
+        final Map<String, Long> hotMethods = new TreeMap<>();
+        final Map<String, Long> allocations = new TreeMap<>();
+        final Map<String, Long> contention = new TreeMap<>();
+        long safepoints = 0;
+        long safepointNanos = 0;
+        int top = 0;
+        for (final JfrResult result : results) {
+            result.hotMethods.forEach((k, v) -> hotMethods.merge(k, v, Long::sum));
+            result.allocations.forEach((k, v) -> allocations.merge(k, v, Long::sum));
+            result.contention.forEach((k, v) -> contention.merge(k, v, Long::sum));
+            safepoints += result.safepoints;
+            safepointNanos += result.safepointNanos;
+            top = Math.max(top, result.top);
+        }
+        return new JfrResult(hotMethods, allocations, contention, safepoints, safepointNanos, top);
+    }
+
+    @Override
+    public String toString() {
+        return "<see below>";
+    }
+
+    @Override
+    public String extendedInfo() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("JFR summary of all measurement iterations\n");
+
+        builder.append("\n  Hot methods (execution samples, top frame):\n");
+        this.appendTop(builder, this.hotMethods, "%8.1f%%  %s\n", total -> 100D / total);
+
+        builder.append("\n  Allocations by class (sampled):\n");
+        this.appendTop(builder, this.allocations, "%8.1f MB  %s\n", total -> 1D / (1024 * 1024));
+
+        builder.append("\n  Lock contention (blocked on monitor enter or parked):\n");
+        this.appendTop(builder, this.contention, "%8.3f ms  %s\n", total -> 1D / 1_000_000);
+
+        builder.append(String.format("\n  Safepoints: %d, total %.3f ms\n", this.safepoints, this.safepointNanos / 1_000_000D));
+        return builder.toString();
+    }
+
+    private void appendTop(final StringBuilder builder, final Map<String, Long> values, final String format, final LongToDoubleFunction scale) {
+        if (values.isEmpty()) {
+            builder.append("    <none>\n");
+            return;
+        }
+        final long total = values.values().stream().mapToLong(Long::longValue).sum();
+        final double factor = scale.applyAsDouble(total);
+        values.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(this.top)
+            .forEach((Entry<String, Long> e) -> builder.append("  ").append(String.format(format, e.getValue() * factor, e.getKey())));
+    }
+}
@@ -0,0 +1,41 @@
+package com.nikoskatsanos.benchmarks.profile;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.openjdk.jmh.profile.ProfilerException;
+
+/**
+ * Parses the options of a profiler, given on the command line as {@code -prof <profiler>:key1=value1;key2=value2}
+ */
+class ProfilerOptions {
+
+    private ProfilerOptions() {
+    }
+
+    static Map<String, String> parse(final String initLine) throws ProfilerException {
+        final Map<String, String> options = new HashMap<>();
+        if (initLine == null || initLine.trim().isEmpty()) {
+            return options;
+        }
+        for (final String option : initLine.split(";")) {
+            final int separator = option.indexOf('=');
+            if (separator <= 0) {
+                throw new ProfilerException("Expected key=value, got '" + option + "'");
+            }
+            options.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+        }
+        return options;
+    }
+
+    static int intOption(final Map<String, String> options, final String key, final int defaultValue) throws ProfilerException {
+        final String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new ProfilerException("Option '" + key + "' expects a number, got '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.nikoskatsanos.benchmarks.results;
+
+import java.util.Arrays;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+/**
+ * The scores of every measurement iteration, across all forks, of a benchmark for one set of parameters, along with the fork each came from
+ */
+public class BenchmarkSamples {
+
+    private final String benchmark;
+    private final String mode;
+    private final String params;
+    private final String unit;
+    private double[] scores = new double[16];
+    private int[] forks = new int[16];
+    private int size;
+
+    public BenchmarkSamples(final String benchmark, final String mode, final String params, final String unit) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = params;
+        this.unit = unit;
+    }
+
+    /**
+     * @return the identity of the benchmark across runs, i.e. {@code pkg.Class.method [thrpt] size=10}
+     */
+    public static String key(final String benchmark, final String mode, final String params) {
+        return benchmark + " [" + mode + "]" + (params.isEmpty() ? "" : " " + params);
+    }
+
+    public String getKey() {
+        return key(this.benchmark, this.mode, this.params);
+    }
+
+    void add(final int fork, final double score) {
+        if (this.size == this.scores.length) {
+            this.scores = Arrays.copyOf(this.scores, this.size * 2);
+            this.forks = Arrays.copyOf(this.forks, this.size * 2);
+        }
+        this.forks[this.size] = fork;
+        this.scores[this.size++] = score;
+    }
+
+    public String getMode() {
+        return this.mode;
+    }
+
+    public String getUnit() {
+        return this.unit;
+    }
+
+    public double[] getScores() {
+        return Arrays.copyOf(this.scores, this.size);
+    }
+
+    /**
+     * @return the mean score of every fork, in the order of the forks. Iterations within a fork share the fork's JIT compilation and memory layout, hence are not independent
+     * of each other, while forks are
+     */
+    public double[] forkMeans() {
+        final int forkCount = Arrays.stream(this.forks, 0, this.size).max().orElse(-1) + 1;
+        final double[] sums = new double[forkCount];
+        final int[] counts = new int[forkCount];
+        for (int i = 0; i < this.size; i++) {
+            sums[this.forks[i]] += this.scores[i];
+            counts[this.forks[i]]++;
+        }
+        for (int fork = 0; fork < forkCount; fork++) {
+            sums[fork] /= counts[fork];
+        }
+        return sums;
+    }
+
+    /**
+     * @return the lower and upper bound of the score's confidence interval at the given level, computed as JMH does: over all iterations of all forks, by Student's t
+     * distribution. {@code NaN} with fewer than 3 samples
+     */
+    public double[] confidenceInterval(final double confidence) {
+        if (this.size < 3) {
+            return new double[]{Double.NaN, Double.NaN};
+        }
+        final SummaryStatistics statistics = new SummaryStatistics();
+        for (int i = 0; i < this.size; i++) {
+            statistics.addValue(this.scores[i]);
+        }
+        final double t = new TDistribution(statistics.getN() - 1).inverseCumulativeProbability(1 - (1 - confidence) / 2);
+        final double halfWidth = t * statistics.getStandardDeviation() / Math.sqrt(statistics.getN());
+        return new double[]{statistics.getMean() - halfWidth, statistics.getMean() + halfWidth};
+    }
+
+    public double median() {
+        final double[] sorted = this.getScores();
+        Arrays.sort(sorted);
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        final int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * @return whether a higher score is better, as is the case for throughput only. For all other modes the score is a time
+     */
+    public boolean isHigherBetter() {
+        return "thrpt".equals(this.mode);
+    }
+}
@@ -0,0 +1,218 @@
+package com.nikoskatsanos.benchmarks.results;
+
+import com.nikoskatsanos.benchmarks.launcher.EnvironmentInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A file based store of the results of every launch, keyed by commit, JDK and host
+ * <p>
+ *     The store keeps a copy of every launch's output (see {@code BenchmarkLauncher}) under {@code runs/<runId>}, where the run id is the launch's timestamp followed by the
+ *     commit, and appends a line per run to {@code index.csv}. A matrix launch is stored as a run per JVM configuration, its run id holding the name of the configuration's
+ *     sub-directory too, i.e. {@code 20201020-101500-compiler-c2_gc-zgc-3bba158}:
+ *     <pre>
+ *         {@code
+ *         runId,timestamp,commit,jdk,host
+ *         20201020-101500-3bba158,2020-10-20T10:15:00Z,3bba158,Eclipse Adoptium 17.0.9,build-01
+ *         }
+ *     </pre>
+ * </p>
+ */
+public class ResultStore {
+
+    private static final String INDEX = "index.csv";
+    private static final String MATRIX = "matrix.csv";
+    private static final String SAMPLES = "samples.csv";
+    private static final String RUNS = "runs";
+    private static final String INDEX_HEADER = "runId,timestamp,commit,jdk,host";
+    private static final String[] RUN_FILES = {"results.json", "results.csv", SAMPLES, "environment.json"};
+
+    private final Path root;
+
+    public ResultStore(final Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Copies a launch's results directory into the store. Given a matrix launch's directory, every configuration's sub-directory is stored, and given one of those
+     * sub-directories, that configuration alone
+     *
+     * @return the stored runs
+     */
+    public List<StoredRun> add(final Path resultsDir) throws IOException {
+        final Path launchDir = resultsDir.toAbsolutePath().normalize();
+        if (Files.exists(launchDir.resolve(SAMPLES))) {
+            final Path parent = launchDir.getParent();
+            final boolean variant = parent != null && Files.exists(parent.resolve(MATRIX));
+            return Collections.singletonList(this.add(launchDir, variant ? parent.getFileName() + "-" + launchDir.getFileName() : launchDir.getFileName().toString()));
+        }
+        if (Files.exists(launchDir.resolve(MATRIX))) {
+            final List<Path> variantDirs;
+            try (final Stream<Path> children = Files.list(launchDir)) {
+                variantDirs = children.filter(child -> Files.exists(child.resolve(SAMPLES))).sorted().collect(Collectors.toList());
+            }
+            final List<StoredRun> runs = new ArrayList<>();
+            for (final Path variantDir : variantDirs) {
+                runs.add(this.add(variantDir, launchDir.getFileName() + "-" + variantDir.getFileName()));
+            }
+            return runs;
+        }
+        throw new IllegalArgumentException(resultsDir + " is not a launch's results directory, " + SAMPLES + " or " + MATRIX + " missing");
+    }
+
+    private StoredRun add(final Path resultsDir, final String name) throws IOException {
+        final Path environmentFile = resultsDir.resolve("environment.json");
+        if (!Files.exists(environmentFile)) {
+            throw new IllegalArgumentException(resultsDir + " is not a launch's results directory, environment.json missing");
+        }
+        final EnvironmentInfo environment = EnvironmentInfo.fromJson(new String(Files.readAllBytes(environmentFile), StandardCharsets.UTF_8));
+        final StoredRun run = new StoredRun(name + "-" + environment.get("commit"), environment.get("timestamp"), environment.get("commit"),
+            environment.get("jdk"), environment.get("host"));
+
+        final Path runDir = this.root.resolve(RUNS).resolve(run.getRunId());
+        Files.createDirectories(runDir);
+        for (final String file : RUN_FILES) {
+            if (Files.exists(resultsDir.resolve(file))) {
+                Files.copy(resultsDir.resolve(file), runDir.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        final Path index = this.root.resolve(INDEX);
+        if (!Files.exists(index)) {
+            Files.write(index, Collections.singletonList(INDEX_HEADER), StandardCharsets.UTF_8);
+        }
+        Files.write(index, Collections.singletonList(run.toCsv()), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        return run;
+    }
+
+    /**
+     * @return all stored runs, oldest first
+     */
+    public List<StoredRun> list() throws IOException {
+        final Path index = this.root.resolve(INDEX);
+        final List<StoredRun> runs = new ArrayList<>();
+        if (!Files.exists(index)) {
+            return runs;
+        }
+        for (final String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty() && !line.equals(INDEX_HEADER)) {
+                runs.add(StoredRun.fromCsv(line));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Resolves a run by its id, a prefix of its id, {@code latest} or {@code previous} (the one before the latest)
+     *
+     * @throws IllegalArgumentException if no single run matches
+     */
+    public StoredRun resolve(final String selector) throws IOException {
+        final List<StoredRun> runs = this.list();
+        if ("latest".equals(selector) || "previous".equals(selector)) {
+            final int index = runs.size() - ("latest".equals(selector) ? 1 : 2);
+            if (index < 0) {
+                throw new IllegalArgumentException("Not enough runs in the store to resolve '" + selector + "'");
+            }
+            return runs.get(index);
+        }
+
+        StoredRun match = null;
+        for (final StoredRun run : runs) {
+            if (run.getRunId().equals(selector)) {
+                return run;
+            }
+            if (run.getRunId().startsWith(selector)) {
+                if (match != null) {
+                    throw new IllegalArgumentException("'" + selector + "' matches more than one run: " + match.getRunId() + ", " + run.getRunId());
+                }
+                match = run;
+            }
+        }
+        if (match == null) {
+            throw new IllegalArgumentException("No run matches '" + selector + "'");
+        }
+        return match;
+    }
+
+    /**
+     * @return the samples of the run, by {@link BenchmarkSamples#getKey()}
+     */
+    public Map<String, BenchmarkSamples> samples(final StoredRun run) throws IOException {
+        final Map<String, BenchmarkSamples> samples = new LinkedHashMap<>();
+        final List<String> lines = Files.readAllLines(this.root.resolve(RUNS).resolve(run.getRunId()).resolve(SAMPLES), StandardCharsets.UTF_8);
+        // benchmark,mode,params,fork,iteration,score,unit
+        for (final String line : lines.subList(1, lines.size())) {
+            final String[] columns = line.split(",", -1);
+            final String key = BenchmarkSamples.key(columns[0], columns[1], columns[2]);
+            samples.computeIfAbsent(key, k -> new BenchmarkSamples(columns[0], columns[1], columns[2], columns[6]))
+                .add(Integer.parseInt(columns[3]), Double.parseDouble(columns[5]));
+        }
+        return samples;
+    }
+
+    public static class StoredRun {
+        private final String runId;
+        private final String timestamp;
+        private final String commit;
+        private final String jdk;
+        private final String host;
+
+        StoredRun(final String runId, final String timestamp, final String commit, final String jdk, final String host) {
+            this.runId = runId;
+            this.timestamp = timestamp;
+            this.commit = commit;
+            this.jdk = jdk;
+            this.host = host;
+        }
+
+        static StoredRun fromCsv(final String line) {
+            final String[] columns = line.split(",", -1);
+            return new StoredRun(columns[0], columns[1], columns[2], columns[3], columns[4]);
+        }
+
+        String toCsv() {
+            return String.join(",", csvSafe(this.runId), csvSafe(this.timestamp), csvSafe(this.commit), csvSafe(this.jdk), csvSafe(this.host));
+        }
+
+        private static String csvSafe(final String value) {
+            return value == null ? "" : value.replace(',', ' ');
+        }
+
+        public String getRunId() {
+            return this.runId;
+        }
+
+        public String getTimestamp() {
+            return this.timestamp;
+        }
+
+        public String getCommit() {
+            return this.commit;
+        }
+
+        public String getJdk() {
+            return this.jdk;
+        }
+
+        public String getHost() {
+            return this.host;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %-12s %-32s %s", this.runId, this.commit, this.jdk, this.host);
+        }
+    }
+}
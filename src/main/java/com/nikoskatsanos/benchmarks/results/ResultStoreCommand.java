@@ -0,0 +1,92 @@
+package com.nikoskatsanos.benchmarks.results;
+
+import com.nikoskatsanos.benchmarks.results.ResultStore.StoredRun;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line access to the {@link ResultStore}
+ * <h2>Usage</h2>
+ * <pre>
+ *     {@code
+ *      ResultStoreCommand [--store <dir>] list
+ *      ResultStoreCommand [--store <dir>] add <results dir>|<matrix results dir>|<matrix configuration dir>
+ *      ResultStoreCommand [--store <dir>] compare <baseline> <candidate> [--alpha 0.05] [--threshold 5]
+ *     }
+ * </pre>
+ * A matrix launch is added as a run per JVM configuration. Runs are selected by id, a prefix of it, {@code latest} or {@code previous}. {@code compare} exits with {@code 2} if any regression is found, so it can gate a CI build
+ */
+public class ResultStoreCommand {
+
+    private static final String USAGE = "Usage: ResultStoreCommand [--store <dir>] (list | add <results dir> | compare <baseline> <candidate> [--alpha 0.05] [--threshold 5])";
+
+    public static void main(final String... args) throws IOException {
+        Path store = Paths.get("benchmark-store");
+        double alpha = 0.05;
+        double threshold = 5;
+        final List<String> positional = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--store":
+                        store = Paths.get(args[++i]);
+                        break;
+                    case "--alpha":
+                        alpha = Double.parseDouble(args[++i]);
+                        break;
+                    case "--threshold":
+                        threshold = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        positional.add(args[i]);
+                }
+            }
+            if (positional.isEmpty()) {
+                throw new IllegalArgumentException("Missing command");
+            }
+
+            final ResultStore resultStore = new ResultStore(store);
+            switch (positional.get(0)) {
+                case "list":
+                    resultStore.list().forEach(System.out::println);
+                    break;
+                case "add":
+                    resultStore.add(Paths.get(argument(positional, 1))).forEach(run -> System.out.println("Stored " + run.getRunId()));
+                    break;
+                case "compare":
+                    final StoredRun baseline = resultStore.resolve(argument(positional, 1));
+                    final StoredRun candidate = resultStore.resolve(argument(positional, 2));
+                    System.out.println("Baseline:  " + baseline);
+                    System.out.println("Candidate: " + candidate);
+                    if (!baseline.getHost().equals(candidate.getHost())) {
+                        System.out.println("WARNING: runs are from different hosts, differences may be due to the hardware");
+                    }
+                    System.out.println(String.format("Significance: Welch's t-test on fork means (alpha=%s), else non-overlapping 99.9%% confidence intervals; threshold=%s%%",
+                        alpha, threshold));
+
+                    final List<RunComparison.Row> rows = new RunComparison(alpha, threshold).compare(resultStore.samples(baseline), resultStore.samples(candidate));
+                    RunComparison.print(rows, System.out);
+                    if (rows.stream().anyMatch(row -> row.getVerdict() == RunComparison.Verdict.REGRESSION)) {
+                        System.exit(2);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + positional.get(0));
+            }
+        } catch (final IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    private static String argument(final List<String> positional, final int index) {
+        if (index >= positional.size()) {
+            throw new IllegalArgumentException("Missing argument for " + positional.get(0));
+        }
+        return positional.get(index);
+    }
+}
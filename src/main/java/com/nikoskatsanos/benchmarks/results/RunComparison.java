@@ -0,0 +1,159 @@
+package com.nikoskatsanos.benchmarks.results;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.math3.stat.inference.TTest;
+
+/**
+ * Compares the samples of two runs benchmark by benchmark, flagging statistically significant regressions and improvements
+ * <p>
+ *     The iterations of a fork are not independent of each other, they share the fork's JIT compilation, memory layout and so on, hence are not tested as if they were. A
+ *     difference is significant when:
+ *     <ul>
+ *         <li>both runs have at least {@value #MIN_FORKS} forks, and
+ *         <a href="https://en.wikipedia.org/wiki/Welch%27s_t-test">Welch's t-test</a> on the means of the forks rejects the hypothesis of equal means at the given
+ *         {@code alpha}</li>
+ *         <li>otherwise, both runs have at least {@value #MIN_SAMPLES} iterations, and the {@value #CONFIDENCE} confidence intervals of their scores, computed as JMH does,
+ *         do not overlap</li>
+ *     </ul>
+ *     <b>and</b> the medians differ by at least the given threshold, which filters out differences too small to matter. With fewer samples no verdict is given.
+ * </p>
+ */
+public class RunComparison {
+
+    /**
+     * From this number of forks on either side the forks' means are compared
+     */
+    static final int MIN_FORKS = 2;
+
+    /**
+     * Below this number of iterations on either side the confidence intervals are too wide to tell anything, hence no verdict is given
+     */
+    static final int MIN_SAMPLES = 10;
+
+    /**
+     * The confidence level of the intervals JMH reports
+     */
+    static final double CONFIDENCE = 0.999;
+
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED, INSUFFICIENT_DATA, ONLY_IN_BASELINE, ONLY_IN_CANDIDATE
+    }
+
+    private final double alpha;
+    private final double thresholdPercent;
+
+    /**
+     * @param alpha            the significance level of the test on the forks' means, i.e. {@code 0.05}
+     * @param thresholdPercent the minimum relative change of the median, in percent, to be reported
+     */
+    public RunComparison(final double alpha, final double thresholdPercent) {
+        this.alpha = alpha;
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public List<Row> compare(final Map<String, BenchmarkSamples> baseline, final Map<String, BenchmarkSamples> candidate) {
+        final Set<String> keys = new LinkedHashSet<>(baseline.keySet());
+        keys.addAll(candidate.keySet());
+
+        final TTest test = new TTest();
+        final List<Row> rows = new ArrayList<>();
+        for (final String key : keys) {
+            final BenchmarkSamples before = baseline.get(key);
+            final BenchmarkSamples after = candidate.get(key);
+            if (after == null) {
+                rows.add(new Row(key, before.getUnit(), before.median(), Double.NaN, "-", Double.NaN, Verdict.ONLY_IN_BASELINE));
+                continue;
+            }
+            if (before == null) {
+                rows.add(new Row(key, after.getUnit(), Double.NaN, after.median(), "-", Double.NaN, Verdict.ONLY_IN_CANDIDATE));
+                continue;
+            }
+
+            final double[] beforeForks = before.forkMeans();
+            final double[] afterForks = after.forkMeans();
+            final String method;
+            final double pValue;
+            final boolean significant;
+            if (beforeForks.length >= MIN_FORKS && afterForks.length >= MIN_FORKS) {
+                method = "fork means";
+                pValue = test.tTest(beforeForks, afterForks);
+                significant = pValue < this.alpha;
+            } else if (before.getScores().length >= MIN_SAMPLES && after.getScores().length >= MIN_SAMPLES) {
+                method = "99.9% CI";
+                pValue = Double.NaN;
+                final double[] beforeInterval = before.confidenceInterval(CONFIDENCE);
+                final double[] afterInterval = after.confidenceInterval(CONFIDENCE);
+                significant = beforeInterval[1] < afterInterval[0] || afterInterval[1] < beforeInterval[0];
+            } else {
+                rows.add(new Row(key, after.getUnit(), before.median(), after.median(), "-", Double.NaN, Verdict.INSUFFICIENT_DATA));
+                continue;
+            }
+
+            final double changePercent = (after.median() - before.median()) / before.median() * 100;
+            final Verdict verdict;
+            if (!significant || Math.abs(changePercent) < this.thresholdPercent) {
+                verdict = Verdict.UNCHANGED;
+            } else {
+                verdict = (changePercent > 0) == after.isHigherBetter() ? Verdict.IMPROVEMENT : Verdict.REGRESSION;
+            }
+            rows.add(new Row(key, after.getUnit(), before.median(), after.median(), method, pValue, verdict));
+        }
+        return rows;
+    }
+
+    public static void print(final List<Row> rows, final PrintStream out) {
+        out.println(String.format("%-22s %14s %14s %9s %-10s %9s  %-10s %s", "Verdict", "Baseline", "Candidate", "Change", "Test", "p-value", "Unit", "Benchmark"));
+        for (final Row row : rows) {
+            out.println(String.format("%-22s %14.3f %14.3f %8.2f%% %-10s %9.4f  %-10s %s", row.verdict, row.baselineMedian, row.candidateMedian,
+                (row.candidateMedian - row.baselineMedian) / row.baselineMedian * 100, row.method, row.pValue, row.unit, row.key));
+        }
+    }
+
+    public static class Row {
+        private final String key;
+        private final String unit;
+        private final double baselineMedian;
+        private final double candidateMedian;
+        private final String method;
+        private final double pValue;
+        private final Verdict verdict;
+
+        Row(final String key, final String unit, final double baselineMedian, final double candidateMedian, final String method, final double pValue,
+            final Verdict verdict) {
+            this.key = key;
+            this.unit = unit;
+            this.baselineMedian = baselineMedian;
+            this.candidateMedian = candidateMedian;
+            this.method = method;
+            this.pValue = pValue;
+            this.verdict = verdict;
+        }
+
+        public String getKey() {
+            return this.key;
+        }
+
+        public Verdict getVerdict() {
+            return this.verdict;
+        }
+
+        /**
+         * @return how the runs were compared, the forks' means or the confidence intervals, {@code -} if they were not
+         */
+        public String getMethod() {
+            return this.method;
+        }
+
+        /**
+         * @return the p-value of the test on the forks' means, {@code NaN} if they were not tested
+         */
+        public double getPValue() {
+            return this.pValue;
+        }
+    }
+}
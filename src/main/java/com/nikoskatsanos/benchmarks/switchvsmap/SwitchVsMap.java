@@ -216,6 +216,14 @@ public class SwitchVsMap {
         bh.consume(value);
     }
 
+    public Map<Values, String> getValToStr() {
+        return this.valToStr;
+    }
+
+    public EnumMap<Values, String> getEnumValToStr() {
+        return this.enumValToStr;
+    }
+
     private Values getRandom() {
         return this.vals[ThreadLocalRandom.current().nextInt(0, 10)];
     }